@@ -0,0 +1,95 @@
+package com.test.myapplication.label.benchmark
+
+import java.io.File
+import java.lang.management.ManagementFactory
+import java.util.Locale
+
+/**
+ * A small JMH-style harness: time based warm up and measurement, per operation latency percentiles,
+ * throughput and allocated bytes per operation. Results are printed and appended to
+ * build/reports/benchmark/results.csv so runs can be compared before a release.
+ */
+object Bench {
+
+    class Result(
+        val name: String,
+        val ops: Int,
+        val opsPerSecond: Double,
+        val p50Micros: Double,
+        val p90Micros: Double,
+        val p99Micros: Double,
+        val bytesPerOp: Long
+    ) {
+        override fun toString(): String = String.format(
+            Locale.US,
+            "%-60s ops=%8d  %12.1f ops/s  p50=%10.2fus  p90=%10.2fus  p99=%10.2fus  alloc=%10d B/op",
+            name, ops, opsPerSecond, p50Micros, p90Micros, p99Micros, bytesPerOp
+        )
+    }
+
+    private val threadBean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+    private val reportFile = File("build/reports/benchmark/results.csv")
+    private const val MAX_SAMPLES = 1_000_000
+
+    // consumed results, so the JIT can't drop the work.
+    @Volatile
+    var blackhole: Int = 0
+
+    fun run(name: String, warmupMillis: Long = 300, measureMillis: Long = 1_000, block: () -> Any?): Result {
+        var sink = 0
+        val warmupEnd = System.nanoTime() + warmupMillis * 1_000_000
+        while (System.nanoTime() < warmupEnd) {
+            sink += block().hashCode()
+        }
+
+        val samples = LongArray(MAX_SAMPLES)
+        var ops = 0
+        val threadId = Thread.currentThread().id
+        val allocatedBefore = threadBean.getThreadAllocatedBytes(threadId)
+        val start = System.nanoTime()
+        val end = start + measureMillis * 1_000_000
+        var now = start
+        while (now < end && ops < MAX_SAMPLES) {
+            sink += block().hashCode()
+            val next = System.nanoTime()
+            samples[ops++] = next - now
+            now = next
+        }
+        val allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore
+        blackhole = sink
+
+        val sorted = samples.copyOf(ops).also { it.sort() }
+        val result = Result(
+            name = name,
+            ops = ops,
+            opsPerSecond = ops * 1e9 / (now - start),
+            p50Micros = percentile(sorted, 0.50),
+            p90Micros = percentile(sorted, 0.90),
+            p99Micros = percentile(sorted, 0.99),
+            bytesPerOp = if (ops == 0) 0 else allocated / ops
+        )
+        report(result)
+        return result
+    }
+
+    private fun percentile(sorted: LongArray, p: Double): Double {
+        if (sorted.isEmpty()) return 0.0
+        val index = ((sorted.size - 1) * p).toInt()
+        return sorted[index] / 1_000.0
+    }
+
+    private fun report(result: Result) {
+        println(result)
+        reportFile.parentFile?.mkdirs()
+        if (!reportFile.exists()) {
+            reportFile.writeText("name,ops,ops_per_second,p50_us,p90_us,p99_us,bytes_per_op\n")
+        }
+        reportFile.appendText(
+            String.format(
+                Locale.US, "\"%s\",%d,%.1f,%.2f,%.2f,%.2f,%d\n",
+                result.name, result.ops, result.opsPerSecond,
+                result.p50Micros, result.p90Micros, result.p99Micros, result.bytesPerOp
+            )
+        )
+    }
+}
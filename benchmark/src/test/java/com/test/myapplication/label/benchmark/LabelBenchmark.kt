@@ -0,0 +1,110 @@
+package com.test.myapplication.label.benchmark
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.Color
+import android.text.Spanned
+import android.text.TextPaint
+import android.widget.EditText
+import android.widget.FrameLayout
+import androidx.test.core.app.ApplicationProvider
+import com.test.myapplication.label.MyLabelSpan
+import com.test.myapplication.label.MyLabelSpanHelper
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+/**
+ * Benchmarks of the label subsystem across label counts and text sizes.
+ * Note: Robolectric measures text by length and does not rasterize, so getSize/draw numbers
+ * show the cost of our own code, not of the platform text stack.
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [32])
+class LabelBenchmark {
+
+    private val labelCounts = intArrayOf(10, 100, 500)
+    private val textSizes = intArrayOf(1_000, 10_000, 100_000)
+
+    private fun labels(count: Int): List<MyLabelSpan> = (0 until count).map {
+        MyLabelSpan("Label$it", "%var$it%", 5, 3, Color.RED, 10, 20, Color.RED)
+    }
+
+    // plain words with a label value every few words.
+    private fun template(labels: List<MyLabelSpan>, size: Int): String {
+        val builder = StringBuilder(size + 32)
+        var i = 0
+        while (builder.length < size) {
+            builder.append("现在是 ").append(labels[i % labels.size].labelValue).append(" 点，")
+            i++
+        }
+        return builder.toString()
+    }
+
+    @Test
+    fun getSpannableStringByReplaceLabels() {
+        for (count in labelCounts) {
+            val labels = labels(count)
+            val helper = MyLabelSpanHelper().setLabels(labels)
+            for (size in textSizes) {
+                val text = template(labels, size)
+                Bench.run("getSpannableStringByReplaceLabels labels=$count chars=$size") {
+                    helper.getSpannableStringByReplaceLabels(text, true)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun getFinalContentString() {
+        for (count in labelCounts) {
+            val labels = labels(count)
+            val helper = MyLabelSpanHelper().setLabels(labels)
+            for (size in textSizes) {
+                val spanned: Spanned = helper.getSpannableStringByReplaceLabels(template(labels, size), true)
+                Bench.run("getFinalContentString labels=$count chars=$size") {
+                    MyLabelSpanHelper.getFinalContentString(spanned, true)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun setLabels() {
+        val context = ApplicationProvider.getApplicationContext<android.content.Context>()
+        for (count in labelCounts) {
+            val labels = labels(count)
+            val provider = EditText(context)
+            FrameLayout(context).addView(provider)
+            val helper = MyLabelSpanHelper().setLabelProviderEditText(provider)
+            Bench.run("setLabels labels=$count") {
+                helper.setLabels(labels)
+            }
+        }
+    }
+
+    @Test
+    fun getSizeAndDraw() {
+        val paint = TextPaint(TextPaint.ANTI_ALIAS_FLAG).apply { textSize = 42f }
+        val canvas = Canvas(Bitmap.createBitmap(400, 100, Bitmap.Config.ARGB_8888))
+        for (count in labelCounts) {
+            val labels = labels(count)
+            val helper = MyLabelSpanHelper().setLabels(labels)
+            for (size in textSizes) {
+                val spanned = helper.getSpannableStringByReplaceLabels(template(labels, size), true)
+                val spans = spanned.getSpans(0, spanned.length, MyLabelSpan::class.java)
+                val starts = IntArray(spans.size) { spanned.getSpanStart(spans[it]) }
+                val ends = IntArray(spans.size) { spanned.getSpanEnd(spans[it]) }
+                Bench.run("getSize+draw all spans labels=$count chars=$size spans=${spans.size}") {
+                    var width = 0
+                    for (i in spans.indices) {
+                        width += spans[i].getSize(paint, spanned, starts[i], ends[i], null)
+                        spans[i].draw(canvas, spanned, starts[i], ends[i], 0f, 0, 60, 100, paint)
+                    }
+                    Bench.blackhole = width
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.test.myapplication.label.core;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 17:20 1  标签模型，只有标题和值，不可变
+ */
+public final class Label {
+
+    private final String title; //显示文本。 the title for show.
+    private final String value; //标签携带的值。 the value that the label carries.
+
+    public Label(String title, String value) {
+        if (title == null || value == null) {
+            throw new IllegalArgumentException("title and value must not be null");
+        }
+        this.title = title;
+        this.value = value;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @param byValue value or title
+     * @return the value or the title
+     */
+    public String getText(boolean byValue) {
+        return byValue ? value : title;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Label)) {
+            return false;
+        }
+        Label that = (Label) o;
+        return title.equals(that.title) && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * title.hashCode() + value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Label{" + title + ", " + value + "}";
+    }
+}
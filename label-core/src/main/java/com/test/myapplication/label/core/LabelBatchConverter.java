@@ -0,0 +1,139 @@
+package com.test.myapplication.label.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 22:40 1  批量转换模板，在ForkJoin线程池中并行，所有线程共用同一个解析器
+ */
+public final class LabelBatchConverter {
+
+    // chars converted by one task before it stops splitting, small enough to keep all the cores busy.
+    private static final int CHARS_PER_TASK = 16 * 1024;
+
+    private final LabelParser parser;
+    private final ForkJoinPool pool;
+    private final String[] titles;
+    private final String[] values;
+
+    /**
+     * use the common pool.
+     * 使用公共线程池。
+     *
+     * @param parser labels, shared by all the workers
+     */
+    public LabelBatchConverter(LabelParser parser) {
+        this(parser, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param parser labels, shared by all the workers
+     * @param pool   workers
+     */
+    public LabelBatchConverter(LabelParser parser, ForkJoinPool pool) {
+        this.parser = parser;
+        this.pool = pool;
+        List<Label> labels = parser.getLabels();
+        titles = new String[labels.size()];
+        values = new String[labels.size()];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = labels.get(i).getTitle();
+            values[i] = labels.get(i).getValue();
+        }
+    }
+
+    /**
+     * convert one text, same as parse and then serialize, but no document is built.
+     * 转换一段文本，结果同先解析再序列化，但不构建文档。
+     *
+     * @param text        text
+     * @param fromByValue the labels in the text are the values or the titles
+     * @param toByValue   replace the labels by the value or the title
+     * @return result
+     */
+    public String convert(CharSequence text, boolean fromByValue, boolean toByValue) {
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        convert(text, fromByValue, toByValue ? values : titles, out);
+        return out.toString();
+    }
+
+    private void convert(CharSequence text, boolean fromByValue, String[] targets, StringBuilder out) {
+        int[] last = {0};
+        parser.getMatcher(fromByValue).match(text, (start, end, patternIndex) -> {
+            out.append(text, last[0], start);
+            out.append(targets[patternIndex]);
+            last[0] = end;
+        });
+        out.append(text, last[0], text.length());
+    }
+
+    /**
+     * convert all the texts in parallel, blocks until all done.
+     * 并行转换全部文本，全部完成后返回。
+     *
+     * @param texts       texts
+     * @param fromByValue the labels in the texts are the values or the titles
+     * @param toByValue   replace the labels by the value or the title
+     * @return results in the same order
+     */
+    public List<String> convertAll(List<? extends CharSequence> texts, boolean fromByValue, boolean toByValue) {
+        CharSequence[] sources = texts.toArray(new CharSequence[0]);
+        String[] results = new String[sources.length];
+        // the prefix sums of the lengths, so a task splits by chars, not by count.
+        long[] offsets = new long[sources.length + 1];
+        for (int i = 0; i < sources.length; i++) {
+            offsets[i + 1] = offsets[i] + sources[i].length();
+        }
+        pool.invoke(new ConvertTask(sources, results, offsets, 0, sources.length, fromByValue, toByValue ? values : titles));
+
+        List<String> list = new ArrayList<>(results.length);
+        for (String result : results) {
+            list.add(result);
+        }
+        return list;
+    }
+
+    private final class ConvertTask extends RecursiveAction {
+        private final CharSequence[] sources;
+        private final String[] results;
+        private final long[] offsets;
+        private final int from;
+        private final int to;
+        private final boolean fromByValue;
+        private final String[] targets;
+
+        ConvertTask(CharSequence[] sources, String[] results, long[] offsets, int from, int to,
+                    boolean fromByValue, String[] targets) {
+            this.sources = sources;
+            this.results = results;
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+            this.fromByValue = fromByValue;
+            this.targets = targets;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && offsets[to] - offsets[from] > CHARS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ConvertTask(sources, results, offsets, from, middle, fromByValue, targets),
+                        new ConvertTask(sources, results, offsets, middle, to, fromByValue, targets));
+                return;
+            }
+            StringBuilder out = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                out.setLength(0);
+                convert(sources[i], fromByValue, targets, out);
+                results[i] = out.toString();
+            }
+        }
+    }
+}
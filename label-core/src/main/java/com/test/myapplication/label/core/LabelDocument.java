@@ -0,0 +1,198 @@
+package com.test.myapplication.label.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 17:20 1  不可变的标签文档：文本片段和标签交替出现，标签引用去重后的标签表
+ */
+public final class LabelDocument {
+
+    public static final LabelDocument EMPTY = new Builder().build();
+
+    // all the literals joined together, literal i is literalText[literalOffsets[i], literalOffsets[i + 1]).
+    private final String literalText;
+    private final int[] literalOffsets;
+    // occurrence i refers to labelTable[labelRefs[i]], it is between literal i and literal i + 1.
+    private final int[] labelRefs;
+    private final Label[] labelTable;
+
+    private LabelDocument(String literalText, int[] literalOffsets, int[] labelRefs, Label[] labelTable) {
+        this.literalText = literalText;
+        this.literalOffsets = literalOffsets;
+        this.labelRefs = labelRefs;
+        this.labelTable = labelTable;
+    }
+
+    /**
+     * @return the count of the label occurrences.
+     */
+    public int getLabelCount() {
+        return labelRefs.length;
+    }
+
+    /**
+     * @param index occurrence index
+     * @return the label of the occurrence
+     */
+    public Label getLabel(int index) {
+        return labelTable[labelRefs[index]];
+    }
+
+    /**
+     * @param index occurrence index
+     * @return index of the label in the label table
+     */
+    public int getLabelRef(int index) {
+        return labelRefs[index];
+    }
+
+    /**
+     * @param index 0 to getLabelCount(), the literal before the occurrence of the same index, the last one is after all.
+     * @return literal, may be empty
+     */
+    public String getLiteral(int index) {
+        return literalText.substring(literalOffsets[index], literalOffsets[index + 1]);
+    }
+
+    /**
+     * append the literal without creating a string.
+     *
+     * @param index 0 to getLabelCount()
+     * @param out   output
+     */
+    public void appendLiteral(int index, StringBuilder out) {
+        out.append(literalText, literalOffsets[index], literalOffsets[index + 1]);
+    }
+
+    /**
+     * @param index 0 to getLabelCount()
+     * @return length of the literal
+     */
+    public int getLiteralLength(int index) {
+        return literalOffsets[index + 1] - literalOffsets[index];
+    }
+
+    /**
+     * @return the total length of all the literals
+     */
+    public int getLiteralTextLength() {
+        return literalText.length();
+    }
+
+    /**
+     * @return the distinct labels used by the document.
+     */
+    public List<Label> getLabelTable() {
+        return Collections.unmodifiableList(Arrays.asList(labelTable));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LabelDocument)) {
+            return false;
+        }
+        LabelDocument that = (LabelDocument) o;
+        if (labelRefs.length != that.labelRefs.length
+                || !literalText.equals(that.literalText)
+                || !Arrays.equals(literalOffsets, that.literalOffsets)) {
+            return false;
+        }
+        for (int i = 0; i < labelRefs.length; i++) {
+            if (!getLabel(i).equals(that.getLabel(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = literalText.hashCode();
+        result = 31 * result + Arrays.hashCode(literalOffsets);
+        for (int i = 0; i < labelRefs.length; i++) {
+            result = 31 * result + getLabel(i).hashCode();
+        }
+        return result;
+    }
+
+    /**
+     * build the document segment by segment, adjacent literals are merged and the labels are deduplicated.
+     * 逐段构建文档，相邻文本会合并，标签去重。
+     */
+    public static final class Builder {
+        private final StringBuilder literalText = new StringBuilder();
+        private int[] literalOffsets = new int[8];
+        private int[] labelRefs = new int[8];
+        private int labelCount = 0;
+        private final List<Label> labelTable = new ArrayList<>();
+        private final Map<Label, Integer> labelIndexes = new HashMap<>();
+
+        public Builder appendLiteral(CharSequence text) {
+            return appendLiteral(text, 0, text.length());
+        }
+
+        public Builder appendLiteral(CharSequence text, int start, int end) {
+            literalText.append(text, start, end);
+            return this;
+        }
+
+        public Builder appendLabel(Label label) {
+            return appendLabelRef(addToLabelTable(label));
+        }
+
+        /**
+         * append a label that is already in the table, by its index.
+         *
+         * @param ref index in the label table
+         * @return this
+         */
+        public Builder appendLabelRef(int ref) {
+            if (labelCount + 2 > literalOffsets.length) {
+                literalOffsets = Arrays.copyOf(literalOffsets, literalOffsets.length * 2);
+                labelRefs = Arrays.copyOf(labelRefs, labelRefs.length * 2);
+            }
+            labelRefs[labelCount] = ref;
+            literalOffsets[++labelCount] = literalText.length();
+            return this;
+        }
+
+        /**
+         * add a label to the table without an occurrence, for building the table before the content.
+         *
+         * @param label label
+         * @return index in the table
+         */
+        public int addToLabelTable(Label label) {
+            Integer ref = labelIndexes.get(label);
+            if (ref == null) {
+                ref = labelTable.size();
+                labelTable.add(label);
+                labelIndexes.put(label, ref);
+            }
+            return ref;
+        }
+
+        public LabelDocument build() {
+            int[] offsets = Arrays.copyOf(literalOffsets, labelCount + 2);
+            offsets[labelCount + 1] = literalText.length();
+            return new LabelDocument(
+                    literalText.toString(),
+                    offsets,
+                    Arrays.copyOf(labelRefs, labelCount),
+                    labelTable.toArray(new Label[0]));
+        }
+    }
+}
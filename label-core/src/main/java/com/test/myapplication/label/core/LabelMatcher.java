@@ -0,0 +1,225 @@
+package com.test.myapplication.label.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 10:20 1  多模式匹配（Aho–Corasick），一次遍历找出全部标签，最左最长优先
+ */
+public class LabelMatcher {
+
+    /**
+     * receive the matches, in order, never overlapped.
+     * 匹配结果回调，按顺序且不重叠。
+     */
+    public interface OnMatchListener {
+        /**
+         * @param start        start of the match, inclusive
+         * @param end          end of the match, exclusive
+         * @param patternIndex index of the pattern in the list given to the constructor
+         */
+        void onMatch(int start, int end, int patternIndex);
+    }
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_INTS = new int[0];
+
+    // the trie, node 0 is the root. the edges of every node are sorted by char.
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final int[] depth;
+    private final int[] output;   //pattern ends at this node, -1 if none.
+    private final int[] dictLink; //nearest node on the fail chain that has an output, -1 if none.
+    private final int maxPatternLength;
+
+    /**
+     * build the automaton once. empty patterns are ignored, for the same pattern the first one wins.
+     * 构建自动机，空字符串会被忽略，重复的以第一个为准。
+     *
+     * @param patterns patterns to find
+     */
+    public LabelMatcher(List<String> patterns) {
+        List<char[]> chars = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        chars.add(NO_CHARS);
+        targets.add(NO_INTS);
+        depths.add(0);
+        outputs.add(-1);
+
+        int maxLength = 0;
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                char[] keys = chars.get(node);
+                int found = Arrays.binarySearch(keys, c);
+                if (found >= 0) {
+                    node = targets.get(node)[found];
+                } else {
+                    int insert = -found - 1;
+                    int child = chars.size();
+                    chars.add(NO_CHARS);
+                    targets.add(NO_INTS);
+                    depths.add(i + 1);
+                    outputs.add(-1);
+                    chars.set(node, insertChar(keys, insert, c));
+                    targets.set(node, insertInt(targets.get(node), insert, child));
+                    node = child;
+                }
+            }
+            if (outputs.get(node) < 0) {
+                outputs.set(node, p);
+            }
+            maxLength = Math.max(maxLength, pattern.length());
+        }
+
+        int count = chars.size();
+        edgeChars = chars.toArray(new char[count][]);
+        edgeTargets = targets.toArray(new int[count][]);
+        depth = new int[count];
+        output = new int[count];
+        for (int i = 0; i < count; i++) {
+            depth[i] = depths.get(i);
+            output[i] = outputs.get(i);
+        }
+        fail = new int[count];
+        dictLink = new int[count];
+        dictLink[0] = -1;
+        maxPatternLength = maxLength;
+
+        // breadth first, so the fail node is always ready before its children.
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            fail[child] = 0;
+            dictLink[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                char c = edgeChars[node][i];
+                int child = edgeTargets[node][i];
+                int f = fail[node];
+                while (f != 0 && child(f, c) < 0) {
+                    f = fail[f];
+                }
+                int next = child(f, c);
+                fail[child] = next >= 0 ? next : 0;
+                dictLink[child] = output[fail[child]] >= 0 ? fail[child] : dictLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * @return the length of the longest pattern, 0 if there is none.
+     */
+    public int getMaxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * find all the patterns in the whole text.
+     * 在全文中查找。
+     *
+     * @param text     text
+     * @param listener receive the matches
+     */
+    public void match(CharSequence text, OnMatchListener listener) {
+        match(text, 0, text.length(), listener);
+    }
+
+    /**
+     * find the patterns in [from, to), leftmost first and then longest, the matches never overlap.
+     * 在[from, to)内查找，最左优先，其次最长，结果互不重叠。
+     *
+     * @param text     text
+     * @param from     start, inclusive
+     * @param to       end, exclusive
+     * @param listener receive the matches
+     */
+    public void match(CharSequence text, int from, int to, OnMatchListener listener) {
+        if (maxPatternLength == 0) {
+            return;
+        }
+        int state = 0;
+        int bestStart = -1;
+        int bestEnd = -1;
+        int bestPattern = -1;
+        int i = from;
+        while (true) {
+            if (i < to) {
+                state = next(state, text.charAt(i));
+                i++;
+                int o = output[state] >= 0 ? state : dictLink[state];
+                while (o >= 0) {
+                    int start = i - depth[o];
+                    if (bestPattern < 0 || start < bestStart || (start == bestStart && i > bestEnd)) {
+                        bestStart = start;
+                        bestEnd = i;
+                        bestPattern = output[o];
+                    }
+                    o = dictLink[o];
+                }
+                // no match found later can start at or before the best one, so it's final.
+                if (bestPattern < 0 || i - depth[state] <= bestStart) {
+                    continue;
+                }
+            } else if (bestPattern < 0) {
+                return;
+            }
+            listener.onMatch(bestStart, bestEnd, bestPattern);
+            i = bestEnd;
+            state = 0;
+            bestPattern = -1;
+        }
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int child = child(state, c);
+            if (child >= 0) {
+                return child;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int child(int node, char c) {
+        int found = Arrays.binarySearch(edgeChars[node], c);
+        return found >= 0 ? edgeTargets[node][found] : -1;
+    }
+
+    private static char[] insertChar(char[] source, int index, char c) {
+        char[] result = new char[source.length + 1];
+        System.arraycopy(source, 0, result, 0, index);
+        result[index] = c;
+        System.arraycopy(source, index, result, index + 1, source.length - index);
+        return result;
+    }
+
+    private static int[] insertInt(int[] source, int index, int value) {
+        int[] result = new int[source.length + 1];
+        System.arraycopy(source, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(source, index, result, index + 1, source.length - index);
+        return result;
+    }
+}
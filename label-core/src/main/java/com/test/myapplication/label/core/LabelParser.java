@@ -0,0 +1,84 @@
+package com.test.myapplication.label.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 17:20 1  标签解析器，每组标签只构建一次匹配器，不可变、线程安全
+ */
+public final class LabelParser {
+
+    private final List<Label> labels;
+    private final LabelMatcher valueMatcher;
+    private final LabelMatcher titleMatcher;
+
+    /**
+     * @param labels all the labels, for the same value or title the first one wins.
+     */
+    public LabelParser(List<Label> labels) {
+        this.labels = Collections.unmodifiableList(new ArrayList<>(labels));
+        List<String> values = new ArrayList<>(labels.size());
+        List<String> titles = new ArrayList<>(labels.size());
+        for (Label label : this.labels) {
+            values.add(label.getValue());
+            titles.add(label.getTitle());
+        }
+        this.valueMatcher = new LabelMatcher(values);
+        this.titleMatcher = new LabelMatcher(titles);
+    }
+
+    public List<Label> getLabels() {
+        return labels;
+    }
+
+    /**
+     * @param byValue match the values or the titles
+     * @return matcher, the pattern index is the index in getLabels()
+     */
+    public LabelMatcher getMatcher(boolean byValue) {
+        return byValue ? valueMatcher : titleMatcher;
+    }
+
+    /**
+     * parse the text in one pass. the label table of the result is getLabels() with the equal labels merged,
+     * in the same order.
+     * 一次遍历解析文本。结果的标签表就是getLabels()去掉相同的标签，顺序不变。
+     *
+     * @param text    text
+     * @param byValue the labels in the text are the values or the titles
+     * @return document
+     */
+    public LabelDocument parse(CharSequence text, boolean byValue) {
+        LabelDocument.Builder builder = new LabelDocument.Builder();
+        int[] refs = addLabelTable(builder);
+        int[] last = {0};
+        getMatcher(byValue).match(text, (start, end, patternIndex) -> {
+            builder.appendLiteral(text, last[0], start);
+            builder.appendLabelRef(refs[patternIndex]);
+            last[0] = end;
+        });
+        builder.appendLiteral(text, last[0], text.length());
+        return builder.build();
+    }
+
+    /**
+     * add all the labels to the table of the builder.
+     * 把全部标签加入构建器的标签表。
+     *
+     * @param builder builder
+     * @return the ref in the table of each pattern index, the equal labels share one ref
+     */
+    int[] addLabelTable(LabelDocument.Builder builder) {
+        int[] refs = new int[labels.size()];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = builder.addToLabelTable(labels.get(i));
+        }
+        return refs;
+    }
+}
@@ -0,0 +1,120 @@
+package com.test.myapplication.label.core;
+
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 23:40 1  预先渲染的报时文本，按变量变化的时间分段，按时间顺序查询时为O(1)
+ */
+public final class LabelRenderSchedule {
+
+    // texts[i] is shown in [times[i], times[i + 1]), the last time is the end.
+    private final long[] times;
+    private final String[] texts;
+
+    // queries go forward with the time, so start from the last hit.
+    private volatile int cursor = 0;
+
+    private LabelRenderSchedule(long[] times, String[] texts) {
+        this.times = times;
+        this.texts = texts;
+    }
+
+    /**
+     * render the template for the next changes of its variables.
+     * 按模板变量的变化时间，预先渲染之后的文本。
+     *
+     * @param template   template
+     * @param timeZone   time zone of the values
+     * @param fromMillis the first text is for this time
+     * @param count      how many texts to render, at least 1
+     * @return schedule
+     */
+    public static LabelRenderSchedule compute(LabelTemplate template, TimeZone timeZone, long fromMillis, int count) {
+        TimeLabelValueProvider provider = new TimeLabelValueProvider(timeZone);
+        Set<String> variables = template.getVariables();
+        int size = Math.max(1, count);
+        long[] times = new long[size + 1];
+        String[] texts = new String[size];
+        StringBuilder out = new StringBuilder();
+        long time = fromMillis;
+        int rendered = 0;
+        while (rendered < size) {
+            out.setLength(0);
+            template.render(provider.setTime(time), out);
+            times[rendered] = time;
+            texts[rendered] = out.toString();
+            rendered++;
+            time = provider.getNextChange(variables, time);
+            if (time == Long.MAX_VALUE) {
+                break; // never changes, one text is enough.
+            }
+        }
+        times[rendered] = time;
+        if (rendered < size) {
+            long[] shortTimes = new long[rendered + 1];
+            String[] shortTexts = new String[rendered];
+            System.arraycopy(times, 0, shortTimes, 0, rendered + 1);
+            System.arraycopy(texts, 0, shortTexts, 0, rendered);
+            return new LabelRenderSchedule(shortTimes, shortTexts);
+        }
+        return new LabelRenderSchedule(times, texts);
+    }
+
+    public long getStartMillis() {
+        return times[0];
+    }
+
+    /**
+     * @return the end of the schedule, exclusive. Long.MAX_VALUE if the text never changes.
+     */
+    public long getEndMillis() {
+        return times[times.length - 1];
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    /**
+     * @param timeMillis time
+     * @return covered by the schedule or not
+     */
+    public boolean contains(long timeMillis) {
+        return timeMillis >= times[0] && timeMillis < getEndMillis();
+    }
+
+    /**
+     * get the text for the time, O(1) when the queries go forward in time.
+     * 获取该时间的文本，按时间顺序查询时为O(1)。
+     *
+     * @param timeMillis time
+     * @return text, null if not covered
+     */
+    public String get(long timeMillis) {
+        if (!contains(timeMillis)) {
+            return null;
+        }
+        int index = cursor;
+        if (timeMillis < times[index]) {
+            index = 0;
+        }
+        while (timeMillis >= times[index + 1]) {
+            index++;
+        }
+        cursor = index;
+        return texts[index];
+    }
+
+    /**
+     * @return index of the last text given by get, the caller can refill the schedule when it's near the end.
+     */
+    public int getCursor() {
+        return cursor;
+    }
+}
@@ -0,0 +1,185 @@
+package com.test.myapplication.label.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 21:40 1  标签搜索索引，按单字和双字建倒排表，支持前缀和子串查找，结果按完全匹配、前缀、子串排序
+ */
+public final class LabelSearchIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final String[] titles;
+    private final String[] values;
+    private final int[] all;
+
+    // char -> labels containing it; char pair -> labels containing it. ascending, no duplicates.
+    private final Map<Character, int[]> unigrams = new HashMap<>();
+    private final Map<Integer, int[]> bigrams = new HashMap<>();
+
+    // the last search, a longer query typed after it only checks these.
+    private String lastQuery = null;
+    private int[] lastMatches = NONE;
+
+    /**
+     * @param labels all the labels, the results are the indexes in this list.
+     */
+    public LabelSearchIndex(List<Label> labels) {
+        int count = labels.size();
+        titles = new String[count];
+        values = new String[count];
+        all = new int[count];
+
+        Map<Character, Postings> unigramBuilder = new HashMap<>();
+        Map<Integer, Postings> bigramBuilder = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Label label = labels.get(i);
+            titles[i] = label.getTitle().toLowerCase(Locale.ROOT);
+            values[i] = label.getValue().toLowerCase(Locale.ROOT);
+            all[i] = i;
+            addGrams(titles[i], i, unigramBuilder, bigramBuilder);
+            addGrams(values[i], i, unigramBuilder, bigramBuilder);
+        }
+        for (Map.Entry<Character, Postings> entry : unigramBuilder.entrySet()) {
+            unigrams.put(entry.getKey(), entry.getValue().toArray());
+        }
+        for (Map.Entry<Integer, Postings> entry : bigramBuilder.entrySet()) {
+            bigrams.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    private static void addGrams(String text, int label, Map<Character, Postings> unigramBuilder, Map<Integer, Postings> bigramBuilder) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Postings unigram = unigramBuilder.get(c);
+            if (unigram == null) {
+                unigram = new Postings();
+                unigramBuilder.put(c, unigram);
+            }
+            unigram.add(label);
+            if (i + 1 < text.length()) {
+                int key = bigramKey(c, text.charAt(i + 1));
+                Postings bigram = bigramBuilder.get(key);
+                if (bigram == null) {
+                    bigram = new Postings();
+                    bigramBuilder.put(key, bigram);
+                }
+                bigram.add(label);
+            }
+        }
+    }
+
+    private static int bigramKey(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    public int size() {
+        return all.length;
+    }
+
+    /**
+     * find the labels whose title or value contains the query, ignoring case.
+     * the exact matches come first, then the prefix matches, then the others, each in the original order.
+     * 查找标题或值包含查询内容的标签，忽略大小写。完全匹配的在前，其次是前缀匹配，最后是其他，同级按原顺序。
+     *
+     * @param query query, all the labels for an empty one
+     * @return indexes of the labels
+     */
+    public synchronized int[] search(String query) {
+        String key = query.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            lastQuery = null;
+            lastMatches = NONE;
+            return all.clone();
+        }
+
+        int[] candidates = candidatesOf(key);
+        // typing one more char, the results can only be fewer.
+        if (lastQuery != null && key.startsWith(lastQuery) && lastMatches.length < candidates.length) {
+            candidates = lastMatches;
+        }
+
+        int[] ranked = new int[candidates.length];
+        int[] ranks = new int[candidates.length];
+        int[] rankCounts = new int[3];
+        int count = 0;
+        for (int label : candidates) {
+            int rank = Math.min(rankOf(titles[label], key), rankOf(values[label], key));
+            if (rank < 3) {
+                ranked[count] = label;
+                ranks[count] = rank;
+                rankCounts[rank]++;
+                count++;
+            }
+        }
+
+        // stable counting sort by rank, the candidates are in the original order already.
+        int[] result = new int[count];
+        int[] next = {0, rankCounts[0], rankCounts[0] + rankCounts[1]};
+        for (int i = 0; i < count; i++) {
+            result[next[ranks[i]]++] = ranked[i];
+        }
+
+        lastQuery = key;
+        lastMatches = Arrays.copyOf(ranked, count);
+        return result;
+    }
+
+    // labels that may contain the key, in the original order.
+    private int[] candidatesOf(String key) {
+        if (key.length() == 1) {
+            int[] postings = unigrams.get(key.charAt(0));
+            return postings == null ? NONE : postings;
+        }
+        // the rarest pair is the best filter.
+        int[] best = null;
+        for (int i = 0; i + 1 < key.length(); i++) {
+            int[] postings = bigrams.get(bigramKey(key.charAt(i), key.charAt(i + 1)));
+            if (postings == null) {
+                return NONE;
+            }
+            if (best == null || postings.length < best.length) {
+                best = postings;
+            }
+        }
+        return best;
+    }
+
+    // 0 exact, 1 prefix, 2 substring, 3 not found.
+    private static int rankOf(String text, String key) {
+        if (!text.startsWith(key)) {
+            return text.indexOf(key, 1) > 0 ? 2 : 3;
+        }
+        return text.length() == key.length() ? 0 : 1;
+    }
+
+    // ascending label indexes, the same label is added many times in a row.
+    private static final class Postings {
+        private int[] items = new int[4];
+        private int size = 0;
+
+        void add(int label) {
+            if (size > 0 && items[size - 1] == label) {
+                return;
+            }
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = label;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.test.myapplication.label.core;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 17:20 1  标签文档序列化，用标签的值或标题替换标签
+ */
+public final class LabelSerializer {
+
+    private LabelSerializer() {
+    }
+
+    /**
+     * get the content.
+     * 获取最终结果。
+     *
+     * @param document document
+     * @param byValue  replace the labels by the label value or title 使用value替换标签还是使用title替换标签
+     * @return result
+     */
+    public static String serialize(LabelDocument document, boolean byValue) {
+        StringBuilder out = new StringBuilder(document.getLiteralTextLength() + document.getLabelCount() * 8);
+        serialize(document, byValue, out);
+        return out.toString();
+    }
+
+    /**
+     * append the content to out.
+     * 把最终结果追加到out。
+     *
+     * @param document document
+     * @param byValue  replace the labels by the label value or title
+     * @param out      output
+     */
+    public static void serialize(LabelDocument document, boolean byValue, StringBuilder out) {
+        int count = document.getLabelCount();
+        for (int i = 0; i < count; i++) {
+            document.appendLiteral(i, out);
+            out.append(document.getLabel(i).getText(byValue));
+        }
+        document.appendLiteral(count, out);
+    }
+}
@@ -0,0 +1,202 @@
+package com.test.myapplication.label.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/19 00:10 1  流式解析，从Reader读取并逐段回调文本和标签，内存只与缓冲区大小有关，支持\%和\\转义
+ */
+public final class LabelStreamParser {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * receive the parsed text in order. a literal may come in many pieces.
+     * 按顺序接收解析结果，一段文本可能分多次回调。
+     */
+    public interface Handler {
+        /**
+         * @param chars the buffer, only valid during the call
+         * @param start start, inclusive
+         * @param end   end, exclusive
+         */
+        void onLiteral(char[] chars, int start, int end) throws IOException;
+
+        /**
+         * @param labelIndex index in LabelParser.getLabels()
+         */
+        void onLabel(int labelIndex) throws IOException;
+    }
+
+    private final LabelParser parser;
+    private final int bufferSize;
+
+    public LabelStreamParser(LabelParser parser) {
+        this(parser, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param parser     labels
+     * @param bufferSize chars kept in memory, enlarged to twice the longest label if smaller
+     */
+    public LabelStreamParser(LabelParser parser, int bufferSize) {
+        this.parser = parser;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * parse the text from the reader. "\%" is a literal "%" and "\\" is a literal "\", they never form a label.
+     * a backslash before any other char is kept as it is.
+     * 从Reader解析文本。"\%"表示文本"%"，"\\"表示文本"\"，它们不会组成标签。其他字符前的反斜杠原样保留。
+     *
+     * @param in      input, not closed
+     * @param byValue the labels in the text are the values or the titles
+     * @param handler receive the result
+     * @throws IOException read failed, or thrown by the handler
+     */
+    public void parse(Reader in, boolean byValue, Handler handler) throws IOException {
+        LabelMatcher matcher = parser.getMatcher(byValue);
+        new Session(matcher, Math.max(bufferSize, matcher.getMaxPatternLength() * 2), handler).run(in);
+    }
+
+    private static final class Session implements LabelMatcher.OnMatchListener {
+        private final LabelMatcher matcher;
+        private final int maxLength;
+        private final Handler handler;
+
+        private final char[] raw;
+        // unescaped chars not handled yet, a label may still start in the tail.
+        private final char[] text;
+        private final CharSequence textSequence;
+        private int length = 0;
+        private final char[] escaped = new char[1];
+
+        // matches of one pass, start, end and pattern index one by one.
+        private int[] matches = new int[12];
+        private int matchCount = 0;
+
+        Session(LabelMatcher matcher, int capacity, Handler handler) {
+            this.matcher = matcher;
+            this.maxLength = matcher.getMaxPatternLength();
+            this.handler = handler;
+            this.raw = new char[capacity];
+            this.text = new char[capacity];
+            this.textSequence = CharBuffer.wrap(text);
+        }
+
+        void run(Reader in) throws IOException {
+            boolean backslash = false;
+            int read;
+            while ((read = in.read(raw, 0, raw.length)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    char c = raw[i];
+                    if (backslash) {
+                        backslash = false;
+                        if (c == '%' || c == '\\') {
+                            // an escaped char ends the labels before it.
+                            handle(true);
+                            escaped[0] = c;
+                            handler.onLiteral(escaped, 0, 1);
+                            continue;
+                        }
+                        append('\\');
+                    }
+                    if (c == '\\') {
+                        backslash = true;
+                    } else {
+                        append(c);
+                    }
+                }
+            }
+            if (backslash) {
+                append('\\');
+            }
+            handle(true);
+        }
+
+        private void append(char c) throws IOException {
+            if (length == text.length) {
+                handle(false);
+            }
+            text[length++] = c;
+        }
+
+        // emit what can't change any more, all of it if no more chars will follow.
+        private void handle(boolean isFinal) throws IOException {
+            int limit = isFinal || maxLength == 0 ? length : length - maxLength + 1;
+            if (limit <= 0) {
+                return;
+            }
+            matchCount = 0;
+            matcher.match(textSequence, 0, length, this);
+
+            int consumed = 0;
+            for (int i = 0; i < matchCount * 3; i += 3) {
+                int start = matches[i];
+                if (start >= limit) {
+                    break; // may be longer with the chars to come.
+                }
+                if (start > consumed) {
+                    handler.onLiteral(text, consumed, start);
+                }
+                handler.onLabel(matches[i + 2]);
+                consumed = matches[i + 1];
+            }
+            if (consumed < limit) {
+                handler.onLiteral(text, consumed, limit);
+                consumed = limit;
+            }
+            System.arraycopy(text, consumed, text, 0, length - consumed);
+            length -= consumed;
+        }
+
+        @Override
+        public void onMatch(int start, int end, int patternIndex) {
+            int index = matchCount * 3;
+            if (index + 3 > matches.length) {
+                matches = Arrays.copyOf(matches, matches.length * 2);
+            }
+            matches[index] = start;
+            matches[index + 1] = end;
+            matches[index + 2] = patternIndex;
+            matchCount++;
+        }
+    }
+
+    /**
+     * collect the result into a document, for the texts that fit in memory.
+     * 把结果收集为文档，用于可以放入内存的文本。
+     *
+     * @param in      input, not closed
+     * @param byValue the labels in the text are the values or the titles
+     * @return document
+     * @throws IOException read failed
+     */
+    public LabelDocument parseDocument(Reader in, boolean byValue) throws IOException {
+        final LabelDocument.Builder builder = new LabelDocument.Builder();
+        final int[] refs = parser.addLabelTable(builder);
+        final StringBuilder literal = new StringBuilder();
+        parse(in, byValue, new Handler() {
+            @Override
+            public void onLiteral(char[] chars, int start, int end) {
+                literal.append(chars, start, end - start);
+            }
+
+            @Override
+            public void onLabel(int labelIndex) {
+                builder.appendLiteral(literal, 0, literal.length());
+                literal.setLength(0);
+                builder.appendLabelRef(refs[labelIndex]);
+            }
+        });
+        builder.appendLiteral(literal, 0, literal.length());
+        return builder.build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.test.myapplication.label.core;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/19 00:10 1  流式序列化，直接写入Writer，文本中的%和\会转义，可以被LabelStreamParser原样读回
+ */
+public final class LabelStreamSerializer implements Flushable {
+
+    private final Writer out;
+    private final char[] buffer;
+    private int length = 0;
+
+    public LabelStreamSerializer(Writer out) {
+        this(out, LabelStreamParser.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param out        output, not closed
+     * @param bufferSize chars kept before written to the output
+     */
+    public LabelStreamSerializer(Writer out, int bufferSize) {
+        this.out = out;
+        this.buffer = new char[Math.max(2, bufferSize)];
+    }
+
+    /**
+     * write the text as it is, "%" and "\" are escaped so they never become labels when read back.
+     * 原样写入文本，"%"和"\"会被转义，读回时不会变成标签。
+     *
+     * @param text  text
+     * @param start start, inclusive
+     * @param end   end, exclusive
+     * @return this
+     * @throws IOException write failed
+     */
+    public LabelStreamSerializer writeLiteral(CharSequence text, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '\\') {
+                put('\\');
+            }
+            put(c);
+        }
+        return this;
+    }
+
+    /**
+     * write the label by its value or title.
+     * 用标签的值或标题写入标签。
+     *
+     * @param label   label
+     * @param byValue by the value or the title
+     * @return this
+     * @throws IOException write failed
+     */
+    public LabelStreamSerializer writeLabel(Label label, boolean byValue) throws IOException {
+        String text = label.getText(byValue);
+        for (int i = 0; i < text.length(); i++) {
+            put(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * write the whole document, only one literal is in memory at a time.
+     * 写入整个文档，同一时间只有一段文本在内存中。
+     *
+     * @param document document
+     * @param byValue  replace the labels by the value or the title
+     * @return this
+     * @throws IOException write failed
+     */
+    public LabelStreamSerializer write(LabelDocument document, boolean byValue) throws IOException {
+        int count = document.getLabelCount();
+        for (int i = 0; i < count; i++) {
+            String literal = document.getLiteral(i);
+            writeLiteral(literal, 0, literal.length());
+            writeLabel(document.getLabel(i), byValue);
+        }
+        String last = document.getLiteral(count);
+        writeLiteral(last, 0, last.length());
+        return this;
+    }
+
+    private void put(char c) throws IOException {
+        if (length == buffer.length) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+        buffer[length++] = c;
+    }
+
+    /**
+     * write the buffered chars and flush the output.
+     * 写出缓冲的字符并刷新输出。
+     *
+     * @throws IOException write failed
+     */
+    @Override
+    public void flush() throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,141 @@
+package com.test.myapplication.label.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 14:30 1  编译后的模板，文本和变量交替的片段列表，渲染时不再解析
+ */
+public final class LabelTemplate {
+
+    // literals[i] is before variables[i], the last literal is after the last variable.
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+
+    LabelTemplate(List<String> literals, List<String> variables) {
+        if (literals.size() != variables.size() + 1) {
+            throw new IllegalArgumentException("literals must be one more than variables");
+        }
+        this.literals = literals.toArray(new String[0]);
+        this.variables = variables.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * compile the text with label values, like the content by getFinalContentString(true).
+     * 编译带标签值的文本，如getFinalContentString(true)的结果。
+     *
+     * @param text    text
+     * @param matcher matcher built from the label values
+     * @param values  the label values in the same order as the matcher patterns
+     * @return template
+     */
+    public static LabelTemplate compile(String text, LabelMatcher matcher, String[] values) {
+        Builder builder = new Builder();
+        int[] last = {0};
+        matcher.match(text, (start, end, patternIndex) -> {
+            builder.appendLiteral(text, last[0], start);
+            builder.appendVariable(values[patternIndex]);
+            last[0] = end;
+        });
+        builder.appendLiteral(text, last[0], text.length());
+        return builder.build();
+    }
+
+    /**
+     * compile the document, the label values are the variables.
+     * 编译标签文档，标签的值就是变量。
+     *
+     * @param document document
+     * @return template
+     */
+    public static LabelTemplate compile(LabelDocument document) {
+        Builder builder = new Builder();
+        int count = document.getLabelCount();
+        for (int i = 0; i < count; i++) {
+            builder.appendLiteral(document.getLiteral(i), 0, document.getLiteralLength(i));
+            builder.appendVariable(document.getLabel(i).getValue());
+        }
+        builder.appendLiteral(document.getLiteral(count), 0, document.getLiteralLength(count));
+        return builder.build();
+    }
+
+    /**
+     * render the template.
+     * 渲染模板。
+     *
+     * @param provider live values
+     * @param out      output, reuse it to avoid allocation
+     */
+    public void render(LabelValueProvider provider, StringBuilder out) {
+        out.append(literals[0]);
+        for (int i = 0; i < variables.length; i++) {
+            provider.appendValue(variables[i], out);
+            out.append(literals[i + 1]);
+        }
+    }
+
+    /**
+     * render the template to a new string.
+     * 渲染模板为新的字符串。
+     *
+     * @param provider live values
+     * @return result
+     */
+    public String render(LabelValueProvider provider) {
+        StringBuilder out = new StringBuilder(literalLength + variables.length * 8);
+        render(provider, out);
+        return out.toString();
+    }
+
+    /**
+     * @return the distinct label values used, in order of appearance.
+     */
+    public Set<String> getVariables() {
+        Set<String> result = new LinkedHashSet<>();
+        for (String variable : variables) {
+            result.add(variable);
+        }
+        return result;
+    }
+
+    /**
+     * build the segments one by one, adjacent literals are merged.
+     * 逐段构建模板，相邻的文本会合并。
+     */
+    public static final class Builder {
+        private final List<String> literals = new ArrayList<>();
+        private final List<String> variables = new ArrayList<>();
+        private final StringBuilder pending = new StringBuilder();
+
+        public Builder appendLiteral(CharSequence text, int start, int end) {
+            pending.append(text, start, end);
+            return this;
+        }
+
+        public Builder appendVariable(String labelValue) {
+            literals.add(pending.toString());
+            pending.setLength(0);
+            variables.add(labelValue);
+            return this;
+        }
+
+        public LabelTemplate build() {
+            List<String> allLiterals = new ArrayList<>(literals);
+            allLiterals.add(pending.toString());
+            return new LabelTemplate(allLiterals, variables);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.test.myapplication.label.core;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 14:30 1  标签的实时取值，渲染模板时调用
+ */
+public interface LabelValueProvider {
+
+    /**
+     * append the live value of the label, append directly so no string is created for every render.
+     * 把标签的实时值追加到out，直接追加以免每次渲染都创建字符串。
+     *
+     * @param labelValue the value of the label, like %hour%
+     * @param out        output
+     */
+    void appendValue(String labelValue, StringBuilder out);
+}
@@ -0,0 +1,83 @@
+package com.test.myapplication.label.core;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 14:10 1  农历年查询，预先计算好每年春节的公历日期，查询只需一次比较
+ */
+public final class LunarCalendar {
+
+    public static final int MIN_YEAR = 1900;
+    public static final int MAX_YEAR = 2100;
+
+    private static final String STEMS = "甲乙丙丁戊己庚辛壬癸";
+    private static final String BRANCHES = "子丑寅卯辰巳午未申酉戌亥";
+
+    // the 60 names of the sexagenary cycle, index 0 is 甲子.
+    private static final String[] GAN_ZHI = new String[60];
+
+    static {
+        for (int i = 0; i < 60; i++) {
+            GAN_ZHI[i] = new String(new char[]{STEMS.charAt(i % 10), BRANCHES.charAt(i % 12)});
+        }
+    }
+
+    // the lunar new year of MIN_YEAR to MAX_YEAR, as yyyyMMdd in China Standard Time.
+    private static final int[] NEW_YEAR = {
+            19000131, 19010219, 19020208, 19030129, 19040216, 19050204, 19060125, 19070213, 19080202, 19090122,
+            19100210, 19110130, 19120218, 19130206, 19140126, 19150214, 19160203, 19170123, 19180211, 19190201,
+            19200220, 19210208, 19220128, 19230216, 19240205, 19250124, 19260213, 19270202, 19280123, 19290210,
+            19300130, 19310217, 19320206, 19330126, 19340214, 19350204, 19360124, 19370211, 19380131, 19390219,
+            19400208, 19410127, 19420215, 19430205, 19440125, 19450213, 19460202, 19470122, 19480210, 19490129,
+            19500217, 19510206, 19520127, 19530214, 19540203, 19550124, 19560212, 19570131, 19580218, 19590208,
+            19600128, 19610215, 19620205, 19630125, 19640213, 19650202, 19660121, 19670209, 19680130, 19690217,
+            19700206, 19710127, 19720215, 19730203, 19740123, 19750211, 19760131, 19770218, 19780207, 19790128,
+            19800216, 19810205, 19820125, 19830213, 19840202, 19850220, 19860209, 19870129, 19880217, 19890206,
+            19900127, 19910215, 19920204, 19930123, 19940210, 19950131, 19960219, 19970207, 19980128, 19990216,
+            20000205, 20010124, 20020212, 20030201, 20040122, 20050209, 20060129, 20070218, 20080207, 20090126,
+            20100214, 20110203, 20120123, 20130210, 20140131, 20150219, 20160208, 20170128, 20180216, 20190205,
+            20200125, 20210212, 20220201, 20230122, 20240210, 20250129, 20260217, 20270206, 20280126, 20290213,
+            20300203, 20310123, 20320211, 20330131, 20340219, 20350208, 20360128, 20370215, 20380204, 20390124,
+            20400212, 20410201, 20420122, 20430210, 20440130, 20450217, 20460206, 20470126, 20480214, 20490202,
+            20500123, 20510211, 20520201, 20530219, 20540208, 20550128, 20560215, 20570204, 20580124, 20590212,
+            20600202, 20610121, 20620209, 20630129, 20640217, 20650205, 20660126, 20670214, 20680203, 20690123,
+            20700211, 20710131, 20720219, 20730207, 20740127, 20750215, 20760205, 20770124, 20780212, 20790202,
+            20800122, 20810209, 20820129, 20830217, 20840206, 20850126, 20860214, 20870203, 20880124, 20890210,
+            20900130, 20910218, 20920207, 20930127, 20940215, 20950205, 20960125, 20970212, 20980201, 20990121,
+            21000209
+    };
+
+    private LunarCalendar() {
+    }
+
+    /**
+     * get the lunar year of the date. out of the supported range, the year itself is returned.
+     * 获取公历日期所在的农历年，超出支持范围时返回公历年。
+     *
+     * @param year  year
+     * @param month month, 1 to 12
+     * @param day   day of month
+     * @return lunar year
+     */
+    public static int getLunarYear(int year, int month, int day) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            return year;
+        }
+        int date = year * 10000 + month * 100 + day;
+        return date >= NEW_YEAR[year - MIN_YEAR] ? year : year - 1;
+    }
+
+    /**
+     * get the name of the lunar year, like 壬寅.
+     * 获取农历年的干支名称，如：壬寅。
+     *
+     * @param lunarYear lunar year
+     * @return name
+     */
+    public static String getGanZhi(int lunarYear) {
+        return GAN_ZHI[((lunarYear - 4) % 60 + 60) % 60];
+    }
+}
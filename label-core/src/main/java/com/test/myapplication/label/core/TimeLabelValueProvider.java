@@ -0,0 +1,186 @@
+package com.test.myapplication.label.core;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.TimeZone;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 14:30 1  报时变量的取值，时间只在setTime时计算一次，取值时不分配内存
+ */
+public class TimeLabelValueProvider implements LabelValueProvider {
+
+    public static final String YEAR = "%4year%";
+    public static final String MONTH = "%month%";
+    public static final String DAY = "%day%";
+    public static final String HOUR = "%hour%";
+    public static final String MINUTE = "%minute%";
+    public static final String SECOND = "%second%";
+    public static final String LUNAR_YEAR = "%nlyear%";
+
+    private final Calendar calendar;
+
+    private int year;
+    private int month;
+    private int day;
+    private int hour;
+    private int minute;
+    private int second;
+    private String lunarYear;
+
+    public TimeLabelValueProvider() {
+        this(TimeZone.getDefault());
+    }
+
+    public TimeLabelValueProvider(TimeZone timeZone) {
+        calendar = Calendar.getInstance(timeZone);
+        setTime(System.currentTimeMillis());
+    }
+
+    /**
+     * set the time to render.
+     * 设置要渲染的时间。
+     *
+     * @param timeMillis time in millis
+     * @return this
+     */
+    public TimeLabelValueProvider setTime(long timeMillis) {
+        calendar.setTimeInMillis(timeMillis);
+        int newYear = calendar.get(Calendar.YEAR);
+        int newMonth = calendar.get(Calendar.MONTH) + 1;
+        int newDay = calendar.get(Calendar.DAY_OF_MONTH);
+        if (lunarYear == null || newYear != year || newMonth != month || newDay != day) {
+            lunarYear = LunarCalendar.getGanZhi(LunarCalendar.getLunarYear(newYear, newMonth, newDay)) + "年";
+        }
+        year = newYear;
+        month = newMonth;
+        day = newDay;
+        hour = calendar.get(Calendar.HOUR_OF_DAY);
+        minute = calendar.get(Calendar.MINUTE);
+        second = calendar.get(Calendar.SECOND);
+        return this;
+    }
+
+    /**
+     * find when the values may change next time. the lunar year changes at midnight too, so it's same as the day.
+     * it changes the inner calendar only, the values set by setTime are kept. not thread safe, same as setTime.
+     * 查找这些变量下一次可能变化的时间。农历年也在零点变化，所以同日期一样处理。
+     * 只修改内部的日历，setTime设置的值保持不变。与setTime一样非线程安全。
+     *
+     * @param variables  label values used
+     * @param timeMillis from this time, exclusive
+     * @return the next time, Long.MAX_VALUE if none of them changes with the time
+     */
+    public long getNextChange(Collection<String> variables, long timeMillis) {
+        int field = -1;
+        for (String variable : variables) {
+            field = finer(field, fieldOf(variable));
+        }
+        if (field < 0) {
+            return Long.MAX_VALUE;
+        }
+        calendar.setTimeInMillis(timeMillis);
+        calendar.set(Calendar.MILLISECOND, 0);
+        switch (field) {
+            case Calendar.YEAR:
+                calendar.set(Calendar.MONTH, Calendar.JANUARY);
+                // fall through
+            case Calendar.MONTH:
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                // fall through
+            case Calendar.DAY_OF_MONTH:
+                calendar.set(Calendar.HOUR_OF_DAY, 0);
+                // fall through
+            case Calendar.HOUR_OF_DAY:
+                calendar.set(Calendar.MINUTE, 0);
+                // fall through
+            case Calendar.MINUTE:
+                calendar.set(Calendar.SECOND, 0);
+                // fall through
+            default:
+                break;
+        }
+        calendar.add(field, 1);
+        return calendar.getTimeInMillis();
+    }
+
+    // the calendar field the value changes with, -1 if not a time value.
+    private static int fieldOf(String labelValue) {
+        switch (labelValue) {
+            case YEAR:
+                return Calendar.YEAR;
+            case MONTH:
+                return Calendar.MONTH;
+            case DAY:
+            case LUNAR_YEAR:
+                return Calendar.DAY_OF_MONTH;
+            case HOUR:
+                return Calendar.HOUR_OF_DAY;
+            case MINUTE:
+                return Calendar.MINUTE;
+            case SECOND:
+                return Calendar.SECOND;
+            default:
+                return -1;
+        }
+    }
+
+    private static int finer(int first, int second) {
+        if (first < 0 || second < 0) {
+            return Math.max(first, second);
+        }
+        return rankOf(first) > rankOf(second) ? first : second;
+    }
+
+    private static int rankOf(int field) {
+        switch (field) {
+            case Calendar.YEAR:
+                return 0;
+            case Calendar.MONTH:
+                return 1;
+            case Calendar.DAY_OF_MONTH:
+                return 2;
+            case Calendar.HOUR_OF_DAY:
+                return 3;
+            case Calendar.MINUTE:
+                return 4;
+            default:
+                return 5;
+        }
+    }
+
+    @Override
+    public void appendValue(String labelValue, StringBuilder out) {
+        switch (labelValue) {
+            case YEAR:
+                out.append(year);
+                break;
+            case MONTH:
+                out.append(month);
+                break;
+            case DAY:
+                out.append(day);
+                break;
+            case HOUR:
+                out.append(hour);
+                break;
+            case MINUTE:
+                out.append(minute);
+                break;
+            case SECOND:
+                out.append(second);
+                break;
+            case LUNAR_YEAR:
+                out.append(lunarYear);
+                break;
+            default:
+                // unknown, keep it as it is.
+                out.append(labelValue);
+                break;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.test.myapplication.label.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LabelBatchConverterTest {
+
+    private final LabelParser parser = new LabelParser(Arrays.asList(
+            new Label("Year", "%4year%"),
+            new Label("Hour", "%hour%")));
+
+    @Test
+    public void sameAsParseThenSerialize() {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            texts.add("第" + i + "条：%4year%年%hour%点" + (i % 7 == 0 ? "%hour" : "%hour%"));
+        }
+        List<String> results = new LabelBatchConverter(parser).convertAll(texts, true, false);
+
+        assertEquals(texts.size(), results.size());
+        for (int i = 0; i < texts.size(); i++) {
+            assertEquals(LabelSerializer.serialize(parser.parse(texts.get(i), true), false), results.get(i));
+        }
+    }
+}
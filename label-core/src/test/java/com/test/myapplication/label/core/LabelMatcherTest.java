@@ -0,0 +1,36 @@
+package com.test.myapplication.label.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LabelMatcherTest {
+
+    private static List<String> find(List<String> patterns, String text) {
+        List<String> result = new ArrayList<>();
+        new LabelMatcher(patterns).match(text, (start, end, index) -> result.add(start + "-" + end + ":" + index));
+        return result;
+    }
+
+    @Test
+    public void findsAllTokensInOnePass() {
+        assertEquals(
+                Arrays.asList("3-10:0", "12-18:1", "20-26:1"),
+                find(Arrays.asList("%4year%", "%hour%"), "现在是%4year%年，%hour%点，%hour%"));
+    }
+
+    @Test
+    public void leftmostThenLongestWins() {
+        assertEquals(Arrays.asList("0-4:1"), find(Arrays.asList("ab", "abcd", "bcd"), "abcd"));
+        assertEquals(Arrays.asList("0-2:0", "2-4:2"), find(Arrays.asList("ab", "bc", "cd"), "abcd"));
+    }
+
+    @Test
+    public void ignoresEmptyAndDuplicatedPatterns() {
+        assertEquals(Arrays.asList("1-2:1"), find(Arrays.asList("", "x", "x"), "axb"));
+    }
+}
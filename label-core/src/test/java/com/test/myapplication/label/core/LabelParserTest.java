@@ -0,0 +1,44 @@
+package com.test.myapplication.label.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class LabelParserTest {
+
+    private final LabelParser parser = new LabelParser(Arrays.asList(
+            new Label("Year", "%4year%"),
+            new Label("Hour", "%hour%")));
+
+    @Test
+    public void parseAndSerialize() {
+        LabelDocument document = parser.parse("现在是%4year%年，%hour%点，%hour%", true);
+
+        assertEquals(3, document.getLabelCount());
+        assertEquals("现在是", document.getLiteral(0));
+        assertEquals(new Label("Hour", "%hour%"), document.getLabel(2));
+        assertEquals("", document.getLiteral(3));
+        assertEquals("现在是Year年，Hour点，Hour", LabelSerializer.serialize(document, false));
+        assertEquals("现在是%4year%年，%hour%点，%hour%", LabelSerializer.serialize(document, true));
+    }
+
+    @Test
+    public void titlesAndValuesGiveTheSameDocument() {
+        assertEquals(parser.parse("%hour%:%4year%", true), parser.parse("Hour:Year", false));
+    }
+
+    @Test
+    public void equalLabelsShareOneRef() {
+        Label hour = new Label("Hour", "%hour%");
+        Label minute = new Label("Minute", "%minute%");
+        LabelParser duplicated = new LabelParser(Arrays.asList(hour, hour, minute));
+        LabelDocument document = duplicated.parse("x%minute%y%hour%", true);
+
+        assertEquals(2, document.getLabelCount());
+        assertEquals(minute, document.getLabel(0));
+        assertEquals(hour, document.getLabel(1));
+        assertEquals("xMinuteyHour", LabelSerializer.serialize(document, false));
+    }
+}
@@ -0,0 +1,41 @@
+package com.test.myapplication.label.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+public class LabelRenderScheduleTest {
+
+    private static final TimeZone CHINA = TimeZone.getTimeZone("Asia/Shanghai");
+    private static final String[] VALUES = {"%4year%", "%hour%", "%nlyear%"};
+
+    @Test
+    public void changesOnTheHour() {
+        LabelTemplate template = LabelTemplate.compile(
+                "%hour%点，农历%nlyear%", new LabelMatcher(Arrays.asList(VALUES)), VALUES);
+        // 2022-01-31 22:30 in China, the lunar new year is 2022-02-01.
+        LabelRenderSchedule schedule = LabelRenderSchedule.compute(template, CHINA, 1643639400000L, 3);
+
+        assertEquals(3, schedule.size());
+        assertEquals("22点，农历辛丑年", schedule.get(1643639400000L));
+        assertEquals("23点，农历辛丑年", schedule.get(1643641200000L));
+        assertEquals("0点，农历壬寅年", schedule.get(1643644800000L));
+        assertEquals(1643648400000L, schedule.getEndMillis());
+        assertNull(schedule.get(1643648400000L));
+        assertEquals("22点，农历辛丑年", schedule.get(1643641199999L));
+    }
+
+    @Test
+    public void constantTextNeverChanges() {
+        LabelTemplate template = LabelTemplate.compile("整点报时", new LabelMatcher(Arrays.asList(VALUES)), VALUES);
+        LabelRenderSchedule schedule = LabelRenderSchedule.compute(template, CHINA, 0, 10);
+
+        assertEquals(1, schedule.size());
+        assertEquals(Long.MAX_VALUE, schedule.getEndMillis());
+        assertEquals("整点报时", schedule.get(4102444800000L));
+    }
+}
@@ -0,0 +1,34 @@
+package com.test.myapplication.label.core;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class LabelSearchIndexTest {
+
+    private final LabelSearchIndex index = new LabelSearchIndex(Arrays.asList(
+            new Label("Hour of day", "%hour%"),
+            new Label("Year", "%4year%"),
+            new Label("Hour", "%12hour%"),
+            new Label("农历年", "%nlyear%")));
+
+    @Test
+    public void exactThenPrefixThenSubstring() {
+        assertArrayEquals(new int[]{2, 0}, index.search("hour"));
+        assertArrayEquals(new int[]{1, 3}, index.search("YEAR"));
+        assertArrayEquals(new int[]{3}, index.search("农历"));
+    }
+
+    @Test
+    public void typingNarrowsTheLastResults() {
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.search(""));
+        assertArrayEquals(new int[]{0, 2}, index.search("h"));
+        assertArrayEquals(new int[]{0, 2}, index.search("hou"));
+        assertArrayEquals(new int[]{2, 0}, index.search("hour"));
+        assertArrayEquals(new int[]{2}, index.search("%12"));
+        assertArrayEquals(new int[0], index.search("minute"));
+        assertArrayEquals(new int[]{3}, index.search("年"));
+    }
+}
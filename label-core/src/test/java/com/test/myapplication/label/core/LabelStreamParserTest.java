@@ -0,0 +1,59 @@
+package com.test.myapplication.label.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+public class LabelStreamParserTest {
+
+    private final LabelParser parser = new LabelParser(Arrays.asList(
+            new Label("Year", "%4year%"),
+            new Label("Hour", "%hour%"),
+            new Label("Hours", "%hours%")));
+
+    @Test
+    public void sameAsParseWithTinyBuffers() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("第").append(i).append("次%hour").append(i % 3 == 0 ? "s%" : "%").append("，%4year%年");
+        }
+        // the buffer is enlarged to twice the longest label only, so the labels cross the buffer boundary a lot.
+        LabelDocument document = new LabelStreamParser(parser, 1).parseDocument(new StringReader(text.toString()), true);
+
+        assertEquals(parser.parse(text, true), document);
+    }
+
+    @Test
+    public void escapesRoundTrip() throws IOException {
+        LabelDocument document = new LabelDocument.Builder()
+                .appendLiteral("100% \\ ")
+                .appendLabel(new Label("Hour", "%hour%"))
+                .appendLiteral("%hour%")
+                .build();
+        StringWriter out = new StringWriter();
+        LabelStreamSerializer serializer = new LabelStreamSerializer(out, 4);
+        serializer.write(document, true).flush();
+
+        assertEquals("100\\% \\\\ %hour%\\%hour\\%", out.toString());
+        LabelDocument read = new LabelStreamParser(parser).parseDocument(new StringReader(out.toString()), true);
+        assertEquals(LabelSerializer.serialize(document, true), LabelSerializer.serialize(read, true));
+        assertEquals(1, read.getLabelCount());
+        assertEquals("a\\b", LabelSerializer.serialize(
+                new LabelStreamParser(parser).parseDocument(new StringReader("a\\b"), true), true));
+    }
+
+    @Test
+    public void equalLabelsShareOneRef() throws IOException {
+        Label hour = new Label("Hour", "%hour%");
+        LabelParser duplicated = new LabelParser(Arrays.asList(hour, hour, new Label("Minute", "%minute%")));
+        String text = "x%minute%y%hour%";
+
+        assertEquals(duplicated.parse(text, true),
+                new LabelStreamParser(duplicated).parseDocument(new StringReader(text), true));
+    }
+}
@@ -0,0 +1,34 @@
+package com.test.myapplication.label.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.TimeZone;
+
+public class LabelTemplateTest {
+
+    private static final String[] VALUES = {"%4year%", "%hour%", "%nlyear%"};
+
+    @Test
+    public void renderAgainstLiveValues() {
+        LabelTemplate template = LabelTemplate.compile(
+                "现在是%4year%年，%hour%点，农历%nlyear%", new LabelMatcher(Arrays.asList(VALUES)), VALUES);
+        TimeLabelValueProvider provider = new TimeLabelValueProvider(TimeZone.getTimeZone("Asia/Shanghai"));
+
+        // 2022-01-31 23:00 and 2022-02-01 08:00 in China, the lunar new year is 2022-02-01.
+        assertEquals("现在是2022年，23点，农历辛丑年", template.render(provider.setTime(1643641200000L)));
+        assertEquals("现在是2022年，8点，农历壬寅年", template.render(provider.setTime(1643673600000L)));
+        assertEquals(new LinkedHashSet<>(Arrays.asList(VALUES)), template.getVariables());
+    }
+
+    @Test
+    public void lunarYear() {
+        assertEquals(2023, LunarCalendar.getLunarYear(2024, 2, 9));
+        assertEquals(2024, LunarCalendar.getLunarYear(2024, 2, 10));
+        assertEquals("甲辰", LunarCalendar.getGanZhi(2024));
+        assertEquals("庚子", LunarCalendar.getGanZhi(1900));
+    }
+}
@@ -0,0 +1,78 @@
+package com.test.myapplication.label
+
+import android.graphics.Color
+import android.os.SystemClock
+import android.text.Editable
+import android.text.SpannableStringBuilder
+import android.util.Log
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Compare the one pass serializer with the former delete/insert one, at 1K, 10K and 100K chars.
+ * Results are printed to logcat with tag "LabelBenchmark".
+ */
+@RunWith(AndroidJUnit4::class)
+class GetFinalContentStringBenchmark {
+
+    @Test
+    fun compareWithLegacy() {
+        for (size in intArrayOf(1_000, 10_000, 100_000)) {
+            val text = buildText(size)
+
+            assertEquals(legacy(text, true), MyLabelSpanHelper.getFinalContentString(text, true))
+            assertEquals(legacy(text, false), MyLabelSpanHelper.getFinalContentString(text, false))
+
+            val rounds = if (size >= 100_000) 3 else 20
+            val legacyNs = measure(rounds) { legacy(text, true) }
+            val currentNs = measure(rounds) { MyLabelSpanHelper.getFinalContentString(text, true) }
+            Log.i(TAG, "chars=$size legacy=${legacyNs / 1000}us current=${currentNs / 1000}us")
+        }
+    }
+
+    private fun buildText(size: Int): Editable {
+        val builder = SpannableStringBuilder()
+        val label = MyLabelSpan("Hour", "%hour%", 5, 3, Color.RED, 10, 20, Color.RED)
+        while (builder.length < size) {
+            builder.append("现在是")
+            builder.append(label.copy().spannableString)
+            builder.append("点，")
+        }
+        return builder
+    }
+
+    private inline fun measure(rounds: Int, block: () -> Unit): Long {
+        block() // warm up
+        val start = SystemClock.elapsedRealtimeNanos()
+        for (i in 0 until rounds) {
+            block()
+        }
+        return (SystemClock.elapsedRealtimeNanos() - start) / rounds
+    }
+
+    // the former implementation, kept here as the baseline.
+    private fun legacy(editable: Editable, replaceByLabelValue: Boolean): String {
+        val builder = SpannableStringBuilder(editable)
+        var index = 0
+        while (index < builder.length) {
+            val next = builder.nextSpanTransition(index, builder.length, MyLabelSpan::class.java)
+            val spans = builder.getSpans(index, next, MyLabelSpan::class.java)
+            if (spans.isNotEmpty()) {
+                val span = spans[0]
+                builder.delete(index, builder.getSpanEnd(span))
+                val replacement = if (replaceByLabelValue) span.labelValue else span.labelTitle
+                builder.insert(index, replacement)
+                index += replacement.length
+            } else {
+                index++
+            }
+        }
+        return builder.toString()
+    }
+
+    companion object {
+        private const val TAG = "LabelBenchmark"
+    }
+}
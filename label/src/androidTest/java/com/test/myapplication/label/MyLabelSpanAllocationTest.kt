@@ -0,0 +1,47 @@
+package com.test.myapplication.label
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.graphics.Color
+import android.os.Debug
+import android.text.SpannableStringBuilder
+import android.text.TextPaint
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Make sure measuring and drawing a label does not allocate, the draw path runs on every frame.
+ */
+@RunWith(AndroidJUnit4::class)
+class MyLabelSpanAllocationTest {
+
+    @Suppress("DEPRECATION")
+    @Test
+    fun getSizeAndDraw_doNotAllocate() {
+        val span = MyLabelSpan("Hour", "%hour%", 5, 3, Color.RED, 10, 20, Color.RED)
+        val text = SpannableStringBuilder("x".repeat(4096))
+        text.insert(2048, span.spannableString)
+        val start = text.getSpanStart(span)
+        val end = text.getSpanEnd(span)
+
+        val paint = TextPaint(TextPaint.ANTI_ALIAS_FLAG)
+        paint.textSize = 42f
+        val canvas = Canvas(Bitmap.createBitmap(200, 100, Bitmap.Config.ARGB_8888))
+
+        // warm up, the first call fills the width cache.
+        span.getSize(paint, text, start, end, null)
+        span.draw(canvas, text, start, end, 0f, 0, 60, 100, paint)
+
+        Debug.resetThreadAllocCount()
+        Debug.startAllocCounting()
+        for (i in 0 until 1000) {
+            span.getSize(paint, text, start, end, null)
+            span.draw(canvas, text, start, end, 0f, 0, 60, 100, paint)
+        }
+        Debug.stopAllocCounting()
+
+        assertEquals(0, Debug.getThreadAllocCount())
+    }
+}
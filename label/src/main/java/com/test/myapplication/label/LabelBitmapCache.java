@@ -0,0 +1,204 @@
+package com.test.myapplication.label;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+import android.util.DisplayMetrics;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 16:40 1  标签位图缓存，每种标签只绘制一次，之后直接drawBitmap。按字节数LRU淘汰
+ */
+public class LabelBitmapCache implements ComponentCallbacks2 {
+
+    private final LruCache<Key, Bitmap> cache;
+    private final Key probe = new Key(); //reused for the lookup in draw, main thread only.
+    private float density = 1f;
+
+    /**
+     * @param maxBytes max size of all the bitmaps in bytes
+     */
+    public LabelBitmapCache(int maxBytes) {
+        cache = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * listen to the configuration changes and the memory trims of the app.
+     * 监听配置变化和内存回收，配置变化时清空缓存。
+     *
+     * @param context context
+     * @return this
+     */
+    public LabelBitmapCache attach(Context context) {
+        Context app = context.getApplicationContext();
+        density = app.getResources().getDisplayMetrics().density;
+        app.registerComponentCallbacks(this);
+        return this;
+    }
+
+    /**
+     * stop listening.
+     * 停止监听。
+     *
+     * @param context context
+     */
+    public void detach(Context context) {
+        context.getApplicationContext().unregisterComponentCallbacks(this);
+    }
+
+    /**
+     * drop all the bitmaps, call it if fonts changed.
+     * 清空缓存，字体变化后调用。
+     */
+    public void invalidate() {
+        cache.evictAll();
+    }
+
+    public int getHitCount() {
+        return cache.hitCount();
+    }
+
+    public int getMissCount() {
+        return cache.missCount();
+    }
+
+    public int getEvictionCount() {
+        return cache.evictionCount();
+    }
+
+    public int getSizeInBytes() {
+        return cache.size();
+    }
+
+    /**
+     * draw the label with the cached bitmap, rasterize it first if not cached.
+     *
+     * @param span     label
+     * @param canvas   canvas
+     * @param left     left of the border
+     * @param baseline baseline
+     * @param paint    the paint of the text
+     */
+    void draw(@NonNull MyLabelSpan span, @NonNull Canvas canvas, float left, float baseline, @NonNull Paint paint) {
+        probe.set(span, paint, density);
+        Bitmap bitmap = cache.get(probe);
+        float inset = span.getStyle().getBorderWidth() / 2f;
+        if (bitmap == null) {
+            bitmap = rasterize(span, paint, inset);
+            Key key = new Key();
+            key.set(span, paint, density);
+            cache.put(key, bitmap);
+        }
+        canvas.drawBitmap(bitmap, left - inset, baseline + paint.ascent() - inset, null);
+    }
+
+    // measured with the paint, the size kept by the span may come from another text size.
+    private static Bitmap rasterize(MyLabelSpan span, Paint paint, float inset) {
+        TextPaint copy = new TextPaint(paint);
+        float ascent = copy.ascent();
+        int width = (int) Math.ceil(span.getChipWidth(copy) + inset * 2);
+        int height = (int) Math.ceil(copy.descent() - ascent + inset * 2);
+        Bitmap bitmap = Bitmap.createBitmap(Math.max(width, 1), Math.max(height, 1), Bitmap.Config.ARGB_8888);
+        span.drawChip(new Canvas(bitmap), inset, inset - ascent, copy, new RectF());
+        return bitmap;
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        if (newConfig.densityDpi != Configuration.DENSITY_DPI_UNDEFINED) {
+            density = newConfig.densityDpi / (float) DisplayMetrics.DENSITY_DEFAULT;
+        }
+        invalidate();
+    }
+
+    @Override
+    public void onLowMemory() {
+        invalidate();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE) {
+            invalidate();
+        } else if (level >= TRIM_MEMORY_BACKGROUND) {
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+
+    // everything that changes the pixels of a label.
+    private static final class Key {
+        String title;
+        LabelStyle style; //interned, compare by reference.
+        float textSize;
+        Typeface typeface;
+        float letterSpacing;
+        float textScaleX;
+        float textSkewX;
+        int flags; //fake bold, underline, anti alias etc.
+        float density;
+
+        void set(MyLabelSpan span, Paint paint, float density) {
+            this.title = span.getLabelTitle();
+            this.style = span.getStyle();
+            this.textSize = paint.getTextSize();
+            this.typeface = paint.getTypeface();
+            this.letterSpacing = paint.getLetterSpacing();
+            this.textScaleX = paint.getTextScaleX();
+            this.textSkewX = paint.getTextSkewX();
+            this.flags = paint.getFlags();
+            this.density = density;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return style == that.style
+                    && textSize == that.textSize
+                    && typeface == that.typeface
+                    && letterSpacing == that.letterSpacing
+                    && textScaleX == that.textScaleX
+                    && textSkewX == that.textSkewX
+                    && flags == that.flags
+                    && density == that.density
+                    && title.equals(that.title);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = title.hashCode();
+            result = 31 * result + System.identityHashCode(style);
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + System.identityHashCode(typeface);
+            result = 31 * result + Float.floatToIntBits(letterSpacing);
+            result = 31 * result + Float.floatToIntBits(textScaleX);
+            result = 31 * result + Float.floatToIntBits(textSkewX);
+            result = 31 * result + flags;
+            result = 31 * result + Float.floatToIntBits(density);
+            return result;
+        }
+    }
+}
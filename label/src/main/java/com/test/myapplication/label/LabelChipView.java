@@ -0,0 +1,94 @@
+package com.test.myapplication.label;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.text.TextPaint;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 21:10 1  单个标签的轻量控件，直接用标签自身测量和绘制，不需要文本布局
+ */
+public class LabelChipView extends View {
+
+    private final TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetricsInt fontMetrics = new Paint.FontMetricsInt();
+
+    @Nullable
+    private MyLabelSpan label = null;
+    // measured and drawn here instead of the label, getSize and draw change the size of the span,
+    // the label may be in an editText at the same time.
+    @Nullable
+    private MyLabelSpan chipSpan = null;
+
+    public LabelChipView(Context context) {
+        super(context);
+        paint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 16, context.getResources().getDisplayMetrics()));
+    }
+
+    /**
+     * set the label to show, the label itself is never measured or drawn here.
+     * 设置显示的标签，不会测量或绘制这个标签对象本身。
+     *
+     * @param label label
+     */
+    public void setLabel(@Nullable MyLabelSpan label) {
+        if (this.label == label) {
+            return;
+        }
+        this.label = label;
+        this.chipSpan = label == null ? null : label.copy();
+        requestLayout();
+        invalidate();
+    }
+
+    @Nullable
+    public MyLabelSpan getLabel() {
+        return label;
+    }
+
+    /**
+     * set the text size in pixel.
+     * 设置文字大小，单位像素。
+     *
+     * @param textSize text size
+     */
+    public void setTextSize(float textSize) {
+        if (paint.getTextSize() != textSize) {
+            paint.setTextSize(textSize);
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        paint.getFontMetricsInt(fontMetrics);
+        int width = getPaddingLeft() + getPaddingRight();
+        if (chipSpan != null) {
+            String title = chipSpan.getLabelTitle();
+            width += chipSpan.getSize(paint, title, 0, title.length(), null);
+        }
+        int height = getPaddingTop() + getPaddingBottom() + fontMetrics.descent - fontMetrics.ascent;
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        if (chipSpan == null) {
+            return;
+        }
+        String title = chipSpan.getLabelTitle();
+        int baseline = getPaddingTop() - fontMetrics.ascent;
+        chipSpan.draw(canvas, title, 0, title.length(), getPaddingLeft(), getPaddingTop(), baseline, getHeight() - getPaddingBottom(), paint);
+    }
+}
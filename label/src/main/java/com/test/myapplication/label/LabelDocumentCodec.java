@@ -0,0 +1,290 @@
+package com.test.myapplication.label;
+
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 18:30 1  标签文档的二进制格式：版本头、样式表、标签表、显示文本和标签位置，读取时一次生成Spannable
+ */
+public final class LabelDocumentCodec {
+
+    public static final int MAGIC = 0x4C424C44; // "LBLD"
+    public static final int VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /*
+     * layout, all the counts and lengths are unsigned varints:
+     *   int32 magic, varint version
+     *   styles:  count, then 6 x int32 for each (radius, width, borderColor, margin, padding, textColor)
+     *   labels:  count, then title, value and style index for each
+     *   text:    the text as shown, labels are their titles
+     *   spans:   count, then for each: start delta to the end of the former span, length, label index
+     * strings are varint byte length + utf-8 bytes.
+     */
+
+    private LabelDocumentCodec() {
+    }
+
+    /**
+     * encode the text with labels.
+     * 编码带标签的文本。
+     *
+     * @param text text with labels
+     * @return bytes
+     */
+    public static byte[] encode(Spanned text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() * 2 + 64);
+        try {
+            encode(text, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // never happens for memory.
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * encode the text with labels to the stream.
+     * 编码带标签的文本到输出流。
+     *
+     * @param text text with labels
+     * @param out  output, not closed
+     * @throws IOException write failed
+     */
+    public static void encode(Spanned text, OutputStream out) throws IOException {
+        MyLabelSpan[] spans = MyLabelSpanHelper.getSortedLabelSpans(text);
+
+        // the styles and the labels are deduplicated.
+        Map<LabelStyle, Integer> styleIndexes = new IdentityHashMap<>();
+        List<LabelStyle> styles = new ArrayList<>();
+        Map<String, Integer> labelIndexes = new HashMap<>();
+        List<MyLabelSpan> labels = new ArrayList<>();
+        int[] refs = new int[spans.length];
+        for (int i = 0; i < spans.length; i++) {
+            MyLabelSpan span = spans[i];
+            if (!styleIndexes.containsKey(span.getStyle())) {
+                styleIndexes.put(span.getStyle(), styles.size());
+                styles.add(span.getStyle());
+            }
+            String key = span.getLabelTitle() + '\u0000' + span.getLabelValue() + '\u0000' + styleIndexes.get(span.getStyle());
+            Integer ref = labelIndexes.get(key);
+            if (ref == null) {
+                ref = labels.size();
+                labelIndexes.put(key, ref);
+                labels.add(span);
+            }
+            refs[i] = ref;
+        }
+
+        Writer writer = new Writer(out);
+        writer.writeInt(MAGIC);
+        writer.writeVarint(VERSION);
+
+        writer.writeVarint(styles.size());
+        for (LabelStyle style : styles) {
+            writer.writeInt(style.getBorderRadius());
+            writer.writeInt(style.getBorderWidth());
+            writer.writeInt(style.getBorderColor());
+            writer.writeInt(style.getBorderMargin());
+            writer.writeInt(style.getBorderPadding());
+            writer.writeInt(style.getTextColor());
+        }
+
+        writer.writeVarint(labels.size());
+        for (MyLabelSpan label : labels) {
+            writer.writeString(label.getLabelTitle());
+            writer.writeString(label.getLabelValue());
+            writer.writeVarint(styleIndexes.get(label.getStyle()));
+        }
+
+        writer.writeString(text.toString());
+
+        writer.writeVarint(spans.length);
+        int lastEnd = 0;
+        for (int i = 0; i < spans.length; i++) {
+            int start = text.getSpanStart(spans[i]);
+            int end = text.getSpanEnd(spans[i]);
+            writer.writeVarint(start - lastEnd);
+            writer.writeVarint(end - start);
+            writer.writeVarint(refs[i]);
+            lastEnd = end;
+        }
+    }
+
+    /**
+     * decode to the text with labels.
+     * 解码为带标签的文本。
+     *
+     * @param data bytes
+     * @return text with labels
+     * @throws IOException broken data or unsupported version
+     */
+    public static SpannableStringBuilder decode(byte[] data) throws IOException {
+        return decode(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * decode the whole stream to the text with labels.
+     * 解码整个输入流为带标签的文本。
+     *
+     * @param in input, not closed
+     * @return text with labels
+     * @throws IOException read failed, broken data or unsupported version
+     */
+    public static SpannableStringBuilder decode(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return decode(out.toByteArray());
+    }
+
+    /**
+     * decode from the position to the limit of the buffer, the position is moved. works for mapped buffers too.
+     * 从缓冲区的position解码到limit，会移动position。也适用于内存映射的缓冲区。
+     *
+     * @param buffer buffer
+     * @return text with labels
+     * @throws IOException broken data or unsupported version
+     */
+    public static SpannableStringBuilder decode(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a label document");
+            }
+            int version = readVarint(buffer);
+            if (version < 1 || version > VERSION) {
+                throw new IOException("unsupported version: " + version);
+            }
+
+            LabelStyle[] styles = new LabelStyle[readCount(buffer)];
+            for (int i = 0; i < styles.length; i++) {
+                styles[i] = LabelStyle.obtain(
+                        buffer.getInt(),
+                        buffer.getInt(),
+                        buffer.getInt(),
+                        buffer.getInt(),
+                        buffer.getInt(),
+                        buffer.getInt());
+            }
+
+            MyLabelSpan[] labels = new MyLabelSpan[readCount(buffer)];
+            for (int i = 0; i < labels.length; i++) {
+                String title = readString(buffer);
+                String value = readString(buffer);
+                labels[i] = new MyLabelSpan(title, value, styles[readIndex(buffer, styles.length)]);
+            }
+
+            SpannableStringBuilder result = new SpannableStringBuilder(readString(buffer));
+
+            int count = readCount(buffer);
+            int lastEnd = 0;
+            for (int i = 0; i < count; i++) {
+                int start = lastEnd + readVarint(buffer);
+                int end = start + readVarint(buffer);
+                MyLabelSpan label = labels[readIndex(buffer, labels.length)];
+                if (start < lastEnd || end < start || end > result.length()) {
+                    throw new IOException("span out of range");
+                }
+                // if use the same object, there will be problem when touch it!
+                result.setSpan(label.copy(), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+                lastEnd = end;
+            }
+            return result;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated label document", e);
+        }
+    }
+
+    private static int readVarint(ByteBuffer buffer) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private static int readCount(ByteBuffer buffer) throws IOException {
+        int count = readVarint(buffer);
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IOException("bad count: " + count);
+        }
+        return count;
+    }
+
+    private static int readIndex(ByteBuffer buffer, int size) throws IOException {
+        int index = readVarint(buffer);
+        if (index < 0 || index >= size) {
+            throw new IOException("bad index: " + index);
+        }
+        return index;
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = readCount(buffer);
+        String result;
+        if (buffer.hasArray()) {
+            result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            result = new String(bytes, UTF_8);
+        }
+        return result;
+    }
+
+    // small helper over the stream, big endian like DataOutputStream.
+    private static final class Writer {
+        private final OutputStream out;
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeInt(int value) throws IOException {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+
+        void writeVarint(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.test.myapplication.label;
+
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 20:40 1  多个编辑框之间的拖动协调，记录拖动来源和是否已放下，只持有弱引用
+ */
+public final class LabelDragCoordinator {
+
+    private static final LabelDragCoordinator INSTANCE = new LabelDragCoordinator();
+
+    /**
+     * the only one, the system only runs one drag at a time. use it in the main thread only.
+     * 唯一实例，系统同一时间只有一次拖动。只能在主线程使用。
+     *
+     * @return instance
+     */
+    public static LabelDragCoordinator getInstance() {
+        return INSTANCE;
+    }
+
+    // weak, so the old screens are never kept by a drag that never ended.
+    private WeakReference<LabelDragSession> source = new WeakReference<>(null);
+    private WeakReference<Object> localState = new WeakReference<>(null);
+    private boolean dropped = false;
+
+    private LabelDragCoordinator() {
+    }
+
+    /**
+     * a drag starts.
+     * 开始拖动。
+     *
+     * @param session    session of the editor the label is dragged out of, null if it is not removed from anywhere
+     * @param localState the local state given to startDragAndDrop
+     */
+    void startDrag(@Nullable LabelDragSession session, Object localState) {
+        this.source = new WeakReference<>(session);
+        this.localState = new WeakReference<>(localState);
+        this.dropped = false;
+    }
+
+    /**
+     * @param session    session of an editor
+     * @param localState the local state of the drag event
+     * @return the label of the drag is dragged out of the editor of this session
+     */
+    boolean isSource(LabelDragSession session, Object localState) {
+        return localState != null && this.localState.get() == localState && source.get() == session;
+    }
+
+    /**
+     * one editor has inserted the label, the others must not insert it again.
+     * 某个编辑框已经插入了标签，其他编辑框不能再插入。
+     *
+     * @param localState the local state of the drag event
+     * @return true if this is the first drop of the drag
+     */
+    boolean drop(Object localState) {
+        if (dropped || this.localState.get() != localState) {
+            return false;
+        }
+        dropped = true;
+        return true;
+    }
+
+    /**
+     * @param localState the local state of the drag event
+     * @return the label of the drag has been inserted somewhere
+     */
+    boolean isDropped(Object localState) {
+        return dropped && this.localState.get() == localState;
+    }
+
+    /**
+     * the drag is over, called by the source.
+     * 拖动结束，由来源调用。
+     *
+     * @param localState the local state of the drag event
+     */
+    void endDrag(Object localState) {
+        if (this.localState.get() == localState) {
+            source = new WeakReference<>(null);
+            this.localState = new WeakReference<>(null);
+            dropped = false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.test.myapplication.label;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 20:40 1  单个助手的拖动状态，每个助手一份，互不影响
+ */
+final class LabelDragSession {
+
+    // the span dragged out of the main editText, restored if nothing dropped. null if the drag comes from elsewhere.
+    MyLabelSpan draggingSpan = null;
+
+    // last cursor position, used for trigger vibrate.
+    int lastPos = -1;
+
+    void clear() {
+        draggingSpan = null;
+        lastPos = -1;
+    }
+}
@@ -0,0 +1,178 @@
+package com.test.myapplication.label;
+
+import android.text.Editable;
+import android.text.Layout;
+import android.text.TextWatcher;
+import android.view.View;
+import android.widget.EditText;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 11:05 1  标签点击测试索引，按行分组，文字或布局变化后重建，查询不分配内存
+ */
+public class LabelHitTestIndex implements TextWatcher, View.OnLayoutChangeListener {
+
+    private final EditText editText;
+
+    private boolean dirty = true;
+    private Layout builtLayout = null;
+
+    private int count = 0;
+    private MyLabelSpan[] spans = new MyLabelSpan[0];
+    private float[] lefts = new float[0];
+    private float[] rights = new float[0];
+    private int[] lineFirst = new int[1]; // lineFirst[line] .. lineFirst[line + 1] are the entries of the line.
+    private long[] order = new long[0];
+
+    /**
+     * create and attach the index to the editText.
+     * 创建索引并监听编辑框的文字和布局变化。
+     *
+     * @param editText target
+     */
+    public LabelHitTestIndex(EditText editText) {
+        this.editText = editText;
+        editText.addTextChangedListener(this);
+        editText.addOnLayoutChangeListener(this);
+    }
+
+    /**
+     * find the label under the point. the point is relative to the view, same as MotionEvent.getX() and getY().
+     * 查找触摸点下的标签，坐标相对于控件自身。
+     *
+     * @param x x
+     * @param y y
+     * @return the label or null
+     */
+    @Nullable
+    public MyLabelSpan findSpanAt(float x, float y) {
+        long metricStart = LabelMetrics.begin(LabelMetrics.HIT_TEST);
+        try {
+            return find(x, y);
+        } finally {
+            LabelMetrics.end(LabelMetrics.HIT_TEST, metricStart);
+        }
+    }
+
+    @Nullable
+    private MyLabelSpan find(float x, float y) {
+        Layout layout = editText.getLayout();
+        if (layout == null) {
+            return null;
+        }
+        if (dirty || layout != builtLayout) {
+            rebuild(layout);
+        }
+        if (count == 0) {
+            return null;
+        }
+
+        float localX = x - editText.getTotalPaddingLeft() + editText.getScrollX();
+        int localY = (int) (y - editText.getTotalPaddingTop() + editText.getScrollY());
+        if (localY < 0 || localY >= layout.getHeight()) {
+            return null;
+        }
+        int line = layout.getLineForVertical(localY);
+        if (line + 1 >= lineFirst.length) {
+            return null;
+        }
+
+        // the last entry starts before x.
+        int low = lineFirst[line];
+        int high = lineFirst[line + 1] - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lefts[mid] <= localX) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found >= 0 && localX < rights[found]) {
+            return spans[found];
+        }
+        return null;
+    }
+
+    /**
+     * mark the index out of date, it will be rebuilt on the next query.
+     * 标记索引失效，下次查询时重建。
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    private void rebuild(Layout layout) {
+        dirty = false;
+        builtLayout = layout;
+
+        Editable text = editText.getText();
+        MyLabelSpan[] found = text == null ? new MyLabelSpan[0] : text.getSpans(0, text.length(), MyLabelSpan.class);
+        count = found.length;
+        if (spans.length < count) {
+            spans = new MyLabelSpan[count];
+            lefts = new float[count];
+            rights = new float[count];
+            order = new long[count];
+        } else {
+            Arrays.fill(spans, count, spans.length, null);
+        }
+        int lineCount = layout.getLineCount();
+        if (lineFirst.length < lineCount + 1) {
+            lineFirst = new int[lineCount + 1];
+        }
+
+        // by offset means by line and then by x (left to right text).
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) text.getSpanStart(found[i]) << 32) | i;
+        }
+        Arrays.sort(order, 0, count);
+
+        int line = 0;
+        lineFirst[0] = 0;
+        for (int i = 0; i < count; i++) {
+            MyLabelSpan span = found[(int) order[i]];
+            int start = (int) (order[i] >>> 32);
+            int spanLine = layout.getLineForOffset(start);
+            while (line < spanLine) {
+                lineFirst[++line] = i;
+            }
+            float left = layout.getPrimaryHorizontal(start) + span.getBorderMargin();
+            spans[i] = span;
+            lefts[i] = left;
+            rights[i] = left + span.getChipWidth();
+        }
+        while (line < lineCount) {
+            lineFirst[++line] = count;
+        }
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+        dirty = true;
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+    }
+
+    @Override
+    public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                               int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        dirty = true;
+    }
+}
@@ -0,0 +1,242 @@
+package com.test.myapplication.label;
+
+import android.text.Editable;
+import android.text.SpanWatcher;
+import android.text.Spannable;
+import android.text.Spanned;
+import android.text.TextWatcher;
+import android.view.inputmethod.BaseInputConnection;
+import android.widget.EditText;
+
+import com.test.myapplication.label.core.LabelMatcher;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 19:40 1  增量识别输入的标签值，只扫描修改的区间及其附近，匹配到的直接替换为标签
+ */
+public class LabelIncrementalTokenizer implements TextWatcher, SpanWatcher, LabelMatcher.OnMatchListener {
+
+    private final EditText editText;
+    private final MyLabelSpanHelper helper;
+
+    private int editStart = -1;
+    private int editEnd = -1;
+    private boolean isReplacing = false;
+
+    // matches of one scan, start, end and pattern index one by one.
+    private int[] matches = new int[12];
+    private int matchCount = 0;
+
+    // marks the matches skipped because they were still composing, it moves with the edits.
+    // scanned again when the composing span leaves them, finishComposingText usually only removes the span.
+    private final Object skippedRange = new Object();
+    private boolean hasSkipped = false;
+    private boolean isRescanPosted = false;
+    private final Runnable rescan = this::rescanSkipped;
+
+    /**
+     * create and attach the tokenizer to the editText.
+     * 创建并监听编辑框的文字变化。
+     *
+     * @param editText target
+     * @param helper   provides the current labels
+     */
+    public LabelIncrementalTokenizer(EditText editText, MyLabelSpanHelper helper) {
+        this.editText = editText;
+        this.helper = helper;
+        editText.addTextChangedListener(this);
+        watchSpans(editText.getText());
+    }
+
+    /**
+     * stop listening the editText.
+     * 停止监听编辑框。
+     */
+    public void detach() {
+        editText.removeTextChangedListener(this);
+        MyLabelSpanHelper.MAIN_HANDLER.removeCallbacks(rescan);
+        Editable text = editText.getText();
+        text.removeSpan(this);
+        text.removeSpan(skippedRange);
+        hasSkipped = false;
+    }
+
+    // setText gives the editText a new editable, the watcher is set on it again.
+    private void watchSpans(Spannable text) {
+        if (text.getSpanStart(this) < 0) {
+            text.setSpan(this, 0, text.length(), Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        }
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+        if (!isReplacing) {
+            editStart = start;
+            editEnd = start + count;
+        }
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        if (isReplacing) {
+            return;
+        }
+        watchSpans(s);
+        if (editStart < 0) {
+            return;
+        }
+        if (helper.isUndoApplying()) {
+            // the text restored by undo or redo is kept as it was.
+            editStart = -1;
+            editEnd = -1;
+            return;
+        }
+        int start = editStart;
+        int end = editEnd;
+        editStart = -1;
+        editEnd = -1;
+        scan(s, start, end);
+    }
+
+    // replace the matches touching [start, end) by labels.
+    private void scan(Editable s, int start, int end) {
+        MyLabelSpanHelper.CompiledLabels compiled = helper.getCompiledLabels();
+        LabelMatcher matcher = compiled.getMatcher(true);
+        int maxLength = matcher.getMaxPatternLength();
+        if (maxLength == 0) {
+            return;
+        }
+
+        // a match touching the edit can't start or end further than this.
+        int from = Math.max(0, start - maxLength + 1);
+        int to = Math.min(s.length(), end + maxLength - 1);
+
+        // the labels are never matched again, only the gaps between them are scanned.
+        matchCount = 0;
+        MyLabelSpan[] spans = MyLabelSpanHelper.getSortedLabelSpans(s, from, to);
+        int gapStart = from;
+        for (MyLabelSpan span : spans) {
+            int spanStart = s.getSpanStart(span);
+            if (spanStart > gapStart) {
+                matcher.match(s, gapStart, spanStart, this);
+            }
+            gapStart = Math.max(gapStart, s.getSpanEnd(span));
+        }
+        if (gapStart < to) {
+            matcher.match(s, gapStart, to, this);
+        }
+        if (matchCount == 0) {
+            return;
+        }
+
+        // the text still being composed by the input method must not be touched, it will be scanned after commit.
+        int composingStart = BaseInputConnection.getComposingSpanStart(s);
+        int composingEnd = BaseInputConnection.getComposingSpanEnd(s);
+
+        // from the last one, so the former positions are still right.
+        isReplacing = true;
+        try {
+            for (int i = (matchCount - 1) * 3; i >= 0; i -= 3) {
+                int matchStart = matches[i];
+                int matchEnd = matches[i + 1];
+                if (!touches(matchStart, matchEnd, start, end)) {
+                    // found in the window only, like a value left as text by undo, it is not this edit's.
+                    continue;
+                }
+                if (composingStart >= 0 && matchStart < composingEnd && matchEnd > composingStart) {
+                    markSkipped(s, matchStart, matchEnd);
+                    continue;
+                }
+                // if use the same object, there will be problem when touch it!
+                MyLabelSpan span = compiled.labels[matches[i + 2]].copy();
+                s.replace(matchStart, matchEnd, span.getSpannableString());
+            }
+        } finally {
+            isReplacing = false;
+        }
+    }
+
+    // a deletion leaves an empty range, only the matches across the joint are new.
+    private static boolean touches(int matchStart, int matchEnd, int start, int end) {
+        if (start == end) {
+            return matchStart < start && matchEnd > start;
+        }
+        return matchStart < end && matchEnd > start;
+    }
+
+    private void markSkipped(Spannable s, int start, int end) {
+        if (hasSkipped) {
+            int skippedStart = s.getSpanStart(skippedRange);
+            if (skippedStart >= 0) {
+                start = Math.min(start, skippedStart);
+                end = Math.max(end, s.getSpanEnd(skippedRange));
+            }
+        }
+        s.setSpan(skippedRange, start, end, Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        hasSkipped = true;
+    }
+
+    @Override
+    public void onSpanAdded(Spannable text, Object what, int start, int end) {
+        onComposingMaybeChanged(text);
+    }
+
+    @Override
+    public void onSpanRemoved(Spannable text, Object what, int start, int end) {
+        onComposingMaybeChanged(text);
+    }
+
+    @Override
+    public void onSpanChanged(Spannable text, Object what, int ostart, int oend, int nstart, int nend) {
+        onComposingMaybeChanged(text);
+    }
+
+    // the text is not changed inside the span callbacks, the scan is posted.
+    private void onComposingMaybeChanged(Spannable text) {
+        if (!hasSkipped || isRescanPosted || isReplacing || text != editText.getText()) {
+            return;
+        }
+        int skippedStart = text.getSpanStart(skippedRange);
+        int composingStart = BaseInputConnection.getComposingSpanStart(text);
+        if (skippedStart >= 0 && composingStart >= 0
+                && composingStart < text.getSpanEnd(skippedRange) && BaseInputConnection.getComposingSpanEnd(text) > skippedStart) {
+            return;
+        }
+        isRescanPosted = true;
+        MyLabelSpanHelper.MAIN_HANDLER.post(rescan);
+    }
+
+    private void rescanSkipped() {
+        isRescanPosted = false;
+        Editable s = editText.getText();
+        int start = s.getSpanStart(skippedRange);
+        int end = s.getSpanEnd(skippedRange);
+        hasSkipped = false;
+        s.removeSpan(skippedRange);
+        if (start >= 0) {
+            scan(s, start, end);
+        }
+    }
+
+    @Override
+    public void onMatch(int start, int end, int patternIndex) {
+        int index = matchCount * 3;
+        if (index + 3 > matches.length) {
+            matches = Arrays.copyOf(matches, matches.length * 2);
+        }
+        matches[index] = start;
+        matches[index + 1] = end;
+        matches[index + 2] = patternIndex;
+        matchCount++;
+    }
+}
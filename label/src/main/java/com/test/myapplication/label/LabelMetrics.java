@@ -0,0 +1,158 @@
+package com.test.myapplication.label;
+
+import android.os.Trace;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 20:10 1  标签引擎的性能统计，计数与耗时直方图，带Trace区段，默认关闭，关闭时几乎无开销
+ */
+public final class LabelMetrics {
+
+    public static final int MEASURE = 0;
+    public static final int DRAW = 1;
+    public static final int PARSE = 2;
+    public static final int SERIALIZE = 3;
+    public static final int HIT_TEST = 4;
+    public static final int DRAG_FRAME = 5;
+
+    private static final String[] NAMES = {
+            "Label.measure", "Label.draw", "Label.parse", "Label.serialize", "Label.hitTest", "Label.dragFrame"
+    };
+    private static final int OPERATION_COUNT = NAMES.length;
+
+    /**
+     * bucket i holds the durations in [2^i, 2^(i+1)) nanoseconds, bucket 0 also holds 0.
+     * 第i个桶统计[2^i, 2^(i+1))纳秒的耗时，第0个桶也包含0。
+     */
+    public static final int BUCKET_COUNT = 64;
+
+    /**
+     * returned by begin when the metrics are off, end does nothing for it.
+     * 关闭时begin的返回值，end收到它什么也不做。
+     */
+    public static final long NOT_STARTED = Long.MIN_VALUE;
+
+    /**
+     * receive every recorded operation, called on the thread of the operation, keep it short.
+     * 接收每一次记录，在操作所在线程回调，需要尽快返回。
+     */
+    public interface OnMetricListener {
+        void onMetric(int operation, long durationNanos);
+    }
+
+    private static volatile boolean enabled = false;
+    @Nullable
+    private static volatile OnMetricListener listener = null;
+
+    private static final AtomicLongArray counts = new AtomicLongArray(OPERATION_COUNT);
+    private static final AtomicLongArray totalNanos = new AtomicLongArray(OPERATION_COUNT);
+    private static final AtomicLongArray histograms = new AtomicLongArray(OPERATION_COUNT * BUCKET_COUNT);
+
+    private LabelMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        LabelMetrics.enabled = enabled;
+    }
+
+    public static void setOnMetricListener(@Nullable OnMetricListener listener) {
+        LabelMetrics.listener = listener;
+    }
+
+    /**
+     * start an operation, must be paired with end on the same thread.
+     * 开始一次操作，必须在同一线程中调用end。
+     *
+     * @param operation one of MEASURE, DRAW etc.
+     * @return start time, or NOT_STARTED if the metrics are off
+     */
+    public static long begin(int operation) {
+        if (!enabled) {
+            return NOT_STARTED;
+        }
+        Trace.beginSection(NAMES[operation]);
+        return System.nanoTime();
+    }
+
+    /**
+     * finish an operation and record it.
+     * 结束一次操作并记录。
+     *
+     * @param operation  same as begin
+     * @param startNanos returned by begin
+     */
+    public static void end(int operation, long startNanos) {
+        if (startNanos == NOT_STARTED) {
+            return;
+        }
+        long duration = System.nanoTime() - startNanos;
+        Trace.endSection();
+        if (duration < 0) {
+            duration = 0;
+        }
+        counts.incrementAndGet(operation);
+        totalNanos.addAndGet(operation, duration);
+        histograms.incrementAndGet(operation * BUCKET_COUNT + bucketOf(duration));
+        OnMetricListener current = listener;
+        if (current != null) {
+            current.onMetric(operation, duration);
+        }
+    }
+
+    static int bucketOf(long durationNanos) {
+        return durationNanos <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(durationNanos);
+    }
+
+    public static String getName(int operation) {
+        return NAMES[operation];
+    }
+
+    public static long getCount(int operation) {
+        return counts.get(operation);
+    }
+
+    public static long getTotalNanos(int operation) {
+        return totalNanos.get(operation);
+    }
+
+    /**
+     * get a copy of the histogram of the operation.
+     * 获取该操作耗时直方图的副本。
+     *
+     * @param operation one of MEASURE, DRAW etc.
+     * @return counts of the buckets, see BUCKET_COUNT
+     */
+    public static long[] getHistogram(int operation) {
+        long[] result = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            result[i] = histograms.get(operation * BUCKET_COUNT + i);
+        }
+        return result;
+    }
+
+    /**
+     * clear all the records.
+     * 清空全部记录。
+     */
+    public static void reset() {
+        for (int i = 0; i < OPERATION_COUNT; i++) {
+            counts.set(i, 0);
+            totalNanos.set(i, 0);
+        }
+        for (int i = 0; i < histograms.length(); i++) {
+            histograms.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.test.myapplication.label;
+
+import android.text.Editable;
+import android.text.SpanWatcher;
+import android.text.Spannable;
+import android.text.Spanned;
+import android.text.TextWatcher;
+import android.widget.EditText;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 23:10 1  标签出现位置索引，按标签值分组，随编辑实时更新，按实际位置排序
+ */
+public class LabelOccurrenceIndex implements SpanWatcher, TextWatcher {
+
+    private final EditText editText;
+    private Spannable text = null;
+
+    // value -> labels ordered by the live start in the text.
+    private final Map<String, TreeSet<MyLabelSpan>> occurrences = new HashMap<>();
+    private final Set<String> variables = Collections.unmodifiableSet(occurrences.keySet());
+    private int totalCount = 0;
+
+    // the position used for this span instead of the live one, for the removed span and the search probe.
+    private MyLabelSpan overrideSpan = null;
+    private int overrideStart = -1;
+    private final MyLabelSpan probe = new MyLabelSpan("", "", LabelStyle.obtain(0, 0, 0, 0, 0, 0));
+
+    private final Comparator<MyLabelSpan> byPosition = (first, second) -> {
+        if (first == second) {
+            return 0;
+        }
+        int result = Integer.compare(startOf(first), startOf(second));
+        if (result != 0) {
+            return result;
+        }
+        // the probe comes before the labels at the same position.
+        if (first == probe || second == probe) {
+            return first == probe ? -1 : 1;
+        }
+        return Integer.compare(System.identityHashCode(first), System.identityHashCode(second));
+    };
+
+    /**
+     * create and attach the index to the editText, it follows setText too.
+     * 创建索引并监听编辑框，调用setText后也会跟随新的文本。
+     *
+     * @param editText target
+     */
+    public LabelOccurrenceIndex(EditText editText) {
+        this.editText = editText;
+        editText.addTextChangedListener(this);
+        attach(editText.getText());
+    }
+
+    /**
+     * stop listening the editText.
+     * 停止监听编辑框。
+     */
+    public void detach() {
+        editText.removeTextChangedListener(this);
+        if (text != null) {
+            text.removeSpan(this);
+            text = null;
+        }
+        occurrences.clear();
+        totalCount = 0;
+    }
+
+    /**
+     * @param value label value
+     * @return how many times the label appears
+     */
+    public int getCount(String value) {
+        TreeSet<MyLabelSpan> set = occurrences.get(value);
+        return set == null ? 0 : set.size();
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * the values of all the labels in the text, it's a live view, no copy.
+     * 文本中全部标签的值，实时视图，不复制。
+     *
+     * @return values
+     */
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @param value label value
+     * @return the labels with the value in the order of position
+     */
+    public List<MyLabelSpan> getOccurrences(String value) {
+        TreeSet<MyLabelSpan> set = occurrences.get(value);
+        return set == null ? Collections.<MyLabelSpan>emptyList() : new ArrayList<>(set);
+    }
+
+    /**
+     * @param value label value
+     * @return the starts of the labels with the value, ascending
+     */
+    public int[] getPositions(String value) {
+        TreeSet<MyLabelSpan> set = occurrences.get(value);
+        if (set == null) {
+            return new int[0];
+        }
+        int[] result = new int[set.size()];
+        int i = 0;
+        for (MyLabelSpan span : set) {
+            result[i++] = text.getSpanStart(span);
+        }
+        return result;
+    }
+
+    /**
+     * find the first label with the value starting at or after the position.
+     * 查找从该位置开始（含）的第一个该值的标签。
+     *
+     * @param value    label value
+     * @param position position in the text
+     * @return label or null
+     */
+    @Nullable
+    public MyLabelSpan findNext(String value, int position) {
+        TreeSet<MyLabelSpan> set = occurrences.get(value);
+        if (set == null) {
+            return null;
+        }
+        overrideSpan = probe;
+        overrideStart = position;
+        try {
+            return set.ceiling(probe);
+        } finally {
+            overrideSpan = null;
+        }
+    }
+
+    /**
+     * find the last label with the value starting before the position.
+     * 查找该位置之前最后一个该值的标签。
+     *
+     * @param value    label value
+     * @param position position in the text
+     * @return label or null
+     */
+    @Nullable
+    public MyLabelSpan findPrevious(String value, int position) {
+        TreeSet<MyLabelSpan> set = occurrences.get(value);
+        if (set == null) {
+            return null;
+        }
+        overrideSpan = probe;
+        overrideStart = position;
+        try {
+            return set.lower(probe);
+        } finally {
+            overrideSpan = null;
+        }
+    }
+
+    private int startOf(MyLabelSpan span) {
+        return span == overrideSpan ? overrideStart : text.getSpanStart(span);
+    }
+
+    private void attach(@Nullable Editable editable) {
+        if (text != null) {
+            text.removeSpan(this);
+        }
+        occurrences.clear();
+        totalCount = 0;
+        text = editable;
+        if (editable == null) {
+            return;
+        }
+        editable.setSpan(this, 0, editable.length(), Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        for (MyLabelSpan span : editable.getSpans(0, editable.length(), MyLabelSpan.class)) {
+            add(span);
+        }
+    }
+
+    private void add(MyLabelSpan span) {
+        TreeSet<MyLabelSpan> set = occurrences.get(span.getLabelValue());
+        if (set == null) {
+            set = new TreeSet<>(byPosition);
+            occurrences.put(span.getLabelValue(), set);
+        }
+        if (set.add(span)) {
+            totalCount++;
+        }
+    }
+
+    // the span is not in the text any more, or moved by setSpan, so the old start is used to find it.
+    private void remove(MyLabelSpan span, int oldStart) {
+        TreeSet<MyLabelSpan> set = occurrences.get(span.getLabelValue());
+        if (set == null) {
+            return;
+        }
+        overrideSpan = span;
+        overrideStart = oldStart;
+        try {
+            if (set.remove(span)) {
+                totalCount--;
+            }
+        } finally {
+            overrideSpan = null;
+        }
+        if (set.isEmpty()) {
+            occurrences.remove(span.getLabelValue());
+        }
+    }
+
+    @Override
+    public void onSpanAdded(Spannable text, Object what, int start, int end) {
+        if (text == this.text && what instanceof MyLabelSpan) {
+            add((MyLabelSpan) what);
+        }
+    }
+
+    @Override
+    public void onSpanRemoved(Spannable text, Object what, int start, int end) {
+        if (text == this.text && what instanceof MyLabelSpan) {
+            remove((MyLabelSpan) what, start);
+        }
+    }
+
+    @Override
+    public void onSpanChanged(Spannable text, Object what, int ostart, int oend, int nstart, int nend) {
+        if (text != this.text || !(what instanceof MyLabelSpan)) {
+            return;
+        }
+        if (ostart == nstart && oend == nend) {
+            return;
+        }
+        MyLabelSpan span = (MyLabelSpan) what;
+        // an edit shifts the labels after it by the same length and keeps their order, only a label resized
+        // or moved past its neighbours by setSpan is placed again.
+        if (nstart - ostart == nend - oend && !isOutOfOrder(span, ostart)) {
+            return;
+        }
+        remove(span, ostart);
+        add(span);
+    }
+
+    // the neighbours are found at the old start, where the span still is in the set, then compared at the new one.
+    private boolean isOutOfOrder(MyLabelSpan span, int oldStart) {
+        TreeSet<MyLabelSpan> set = occurrences.get(span.getLabelValue());
+        if (set == null) {
+            return false;
+        }
+        MyLabelSpan lower;
+        MyLabelSpan higher;
+        overrideSpan = span;
+        overrideStart = oldStart;
+        try {
+            lower = set.lower(span);
+            higher = set.higher(span);
+        } finally {
+            overrideSpan = null;
+        }
+        return lower != null && byPosition.compare(lower, span) > 0
+                || higher != null && byPosition.compare(span, higher) > 0;
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        // setText gives a new editable.
+        if (s != text) {
+            attach(s);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.test.myapplication.label;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 21:10 1  标签面板的适配器，控件复用，只有可见的标签才会测量和绘制，长按拖动到编辑框
+ */
+public class LabelPaletteAdapter extends RecyclerView.Adapter<LabelPaletteAdapter.ChipViewHolder> {
+
+    private final List<MyLabelSpan> labels = new ArrayList<>();
+    private float textSize = -1;
+
+    /**
+     * set all the labels.
+     * 设置全部标签。
+     *
+     * @param labels labels
+     */
+    @SuppressWarnings("NotifyDataSetChanged")
+    public void setLabels(List<MyLabelSpan> labels) {
+        this.labels.clear();
+        this.labels.addAll(labels);
+        notifyDataSetChanged();
+    }
+
+    public void addLabel(MyLabelSpan label) {
+        labels.add(label);
+        notifyItemInserted(labels.size() - 1);
+    }
+
+    public void removeLabel(MyLabelSpan label) {
+        int index = labels.indexOf(label);
+        if (index >= 0) {
+            labels.remove(index);
+            notifyItemRemoved(index);
+        }
+    }
+
+    public void replaceLabel(MyLabelSpan oldLabel, MyLabelSpan newLabel) {
+        int index = labels.indexOf(oldLabel);
+        if (index >= 0) {
+            labels.set(index, newLabel);
+            notifyItemChanged(index);
+        }
+    }
+
+    /**
+     * set the text size of the chips in pixel, 16sp by default.
+     * 设置标签文字大小，单位像素，默认16sp。
+     *
+     * @param textSize text size
+     */
+    @SuppressWarnings("NotifyDataSetChanged")
+    public void setTextSize(float textSize) {
+        this.textSize = textSize;
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public ChipViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LabelChipView chip = new LabelChipView(parent.getContext());
+        chip.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        int padding = Math.round(4 * parent.getResources().getDisplayMetrics().density);
+        chip.setPadding(padding, padding, padding, padding);
+        // long press, so the list can still be scrolled by the finger.
+        chip.setOnLongClickListener(v -> {
+            MyLabelSpan label = ((LabelChipView) v).getLabel();
+            return label != null && startDrag(v, label);
+        });
+        return new ChipViewHolder(chip);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ChipViewHolder holder, int position) {
+        LabelChipView chip = (LabelChipView) holder.itemView;
+        if (textSize > 0) {
+            chip.setTextSize(textSize);
+        }
+        chip.setLabel(labels.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return labels.size();
+    }
+
+    // same as the provider editText, the editors receive a copy of the label as the local state.
+    static boolean startDrag(View chip, MyLabelSpan label) {
+        MyLabelSpan localState = label.copy();
+        LabelDragCoordinator.getInstance().startDrag(null, localState);
+        return ViewCompat.startDragAndDrop(chip, null, new View.DragShadowBuilder(chip), localState, 0);
+    }
+
+    public static class ChipViewHolder extends RecyclerView.ViewHolder {
+        ChipViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+}
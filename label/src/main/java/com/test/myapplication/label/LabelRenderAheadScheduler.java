@@ -0,0 +1,156 @@
+package com.test.myapplication.label;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.EditText;
+
+import com.test.myapplication.label.core.LabelRenderSchedule;
+import com.test.myapplication.label.core.LabelTemplate;
+import com.test.myapplication.label.core.TimeLabelValueProvider;
+
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 23:40 1  报时文本预渲染，按变量变化的时间在后台预先渲染之后的N条，编辑框内容变化后自动失效
+ */
+public class LabelRenderAheadScheduler implements TextWatcher {
+
+    // wait for the typing to stop before rendering again.
+    private static final long RECOMPUTE_DELAY_MILLIS = 300;
+
+    // the template of one state of the text, a new one for every change, compared by identity.
+    private static final class Version {
+        final LabelTemplate template;
+
+        Version(LabelTemplate template) {
+            this.template = template;
+        }
+    }
+
+    // the texts rendered from a version, only used while that version is the latest.
+    private static final class Rendered {
+        final Version version;
+        final LabelRenderSchedule schedule;
+
+        Rendered(Version version, LabelRenderSchedule schedule) {
+            this.version = version;
+            this.schedule = schedule;
+        }
+    }
+
+    private final EditText editText;
+    private final int count;
+    private final TimeZone timeZone;
+
+    // read by any thread, replaced as a whole.
+    private volatile Version version;
+    private volatile Rendered rendered = null;
+    // the version being rendered in background, null if none.
+    private final AtomicReference<Version> refilling = new AtomicReference<>();
+
+    private final Runnable recompute = () -> refill(version, System.currentTimeMillis());
+
+    /**
+     * create and attach the scheduler to the editText, the first texts are rendered in background at once.
+     * 创建并监听编辑框，立即在后台渲染最初的文本。
+     *
+     * @param editText the editText with the template
+     * @param count    how many texts rendered ahead
+     * @param timeZone time zone of the values
+     */
+    public LabelRenderAheadScheduler(EditText editText, int count, TimeZone timeZone) {
+        this.editText = editText;
+        this.count = Math.max(1, count);
+        this.timeZone = timeZone;
+        this.version = new Version(MyLabelSpanHelper.compileTemplate(editText.getText()));
+        editText.addTextChangedListener(this);
+        recompute.run();
+    }
+
+    /**
+     * stop listening the editText.
+     * 停止监听编辑框。
+     */
+    public void detach() {
+        editText.removeTextChangedListener(this);
+        MyLabelSpanHelper.MAIN_HANDLER.removeCallbacks(recompute);
+        rendered = null;
+    }
+
+    /**
+     * get the text for the time. it's O(1) if rendered already, otherwise rendered now. can be called in any thread.
+     * 获取该时间的文本，已经预先渲染的为O(1)，否则立即渲染。可以在任意线程调用。
+     *
+     * @param timeMillis time, like the time of the announcement
+     * @return text
+     */
+    public String getText(long timeMillis) {
+        Version latest = version;
+        Rendered current = rendered;
+        if (current != null && current.version == latest) {
+            LabelRenderSchedule schedule = current.schedule;
+            String text = schedule.get(timeMillis);
+            if (text != null) {
+                // half used, render the next ones from now, before they are needed.
+                if (schedule.getCursor() * 2 >= schedule.size() && schedule.getEndMillis() != Long.MAX_VALUE) {
+                    refill(latest, timeMillis);
+                }
+                return text;
+            }
+        }
+        refill(latest, timeMillis);
+        return latest.template.render(new TimeLabelValueProvider(timeZone).setTime(timeMillis));
+    }
+
+    /**
+     * @return the schedule rendered from the current text, null if not ready.
+     */
+    public LabelRenderSchedule getSchedule() {
+        Rendered current = rendered;
+        return current != null && current.version == version ? current.schedule : null;
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        // compile at once, the text can only be read in the main thread; the rendering waits for the typing to stop.
+        version = new Version(MyLabelSpanHelper.compileTemplate(s));
+        rendered = null;
+        MyLabelSpanHelper.MAIN_HANDLER.removeCallbacks(recompute);
+        MyLabelSpanHelper.MAIN_HANDLER.postDelayed(recompute, RECOMPUTE_DELAY_MILLIS);
+    }
+
+    private void refill(final Version target, final long fromMillis) {
+        Version running;
+        do {
+            running = refilling.get();
+            if (running == target) {
+                return;
+            }
+        } while (!refilling.compareAndSet(running, target));
+        MyLabelSpanHelper.BACKGROUND_EXECUTOR.execute(() -> {
+            try {
+                LabelRenderSchedule result = LabelRenderSchedule.compute(target.template, timeZone, fromMillis, count);
+                // a stale one is never read, see getText.
+                if (target == version) {
+                    rendered = new Rendered(target, result);
+                }
+            } finally {
+                refilling.compareAndSet(target, null);
+            }
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package com.test.myapplication.label;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 16:00 1  标签样式，不可变且全局共享，相同的样式只有一个对象
+ */
+public final class LabelStyle {
+
+    // there are only a few styles in an app, they are kept forever.
+    private static final Map<LabelStyle, LabelStyle> INTERNED = new HashMap<>();
+
+    private final int borderRadius;
+    private final int borderWidth;
+    private final int borderColor;
+    private final int borderMargin; //only for left and right
+    private final int borderPadding; //only for left and right
+    private final int textColor;
+
+    private LabelStyle(int borderRadius, int borderWidth, int borderColor, int borderMargin, int borderPadding, int textColor) {
+        this.borderRadius = borderRadius;
+        this.borderWidth = borderWidth;
+        this.borderColor = borderColor;
+        this.borderMargin = borderMargin;
+        this.borderPadding = borderPadding;
+        this.textColor = textColor;
+    }
+
+    /**
+     * get the shared style object.
+     * 获取共享的样式对象。
+     *
+     * @return style
+     */
+    public static LabelStyle obtain(int borderRadius,
+                                    int borderWidth,
+                                    int borderColor,
+                                    int borderMargin,
+                                    int borderPadding,
+                                    int textColor) {
+        LabelStyle style = new LabelStyle(borderRadius, borderWidth, borderColor, borderMargin, borderPadding, textColor);
+        synchronized (INTERNED) {
+            LabelStyle interned = INTERNED.get(style);
+            if (interned == null) {
+                INTERNED.put(style, style);
+                interned = style;
+            }
+            return interned;
+        }
+    }
+
+    public int getBorderRadius() {
+        return borderRadius;
+    }
+
+    public int getBorderWidth() {
+        return borderWidth;
+    }
+
+    public int getBorderColor() {
+        return borderColor;
+    }
+
+    public int getBorderMargin() {
+        return borderMargin;
+    }
+
+    public int getBorderPadding() {
+        return borderPadding;
+    }
+
+    public int getTextColor() {
+        return textColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LabelStyle)) {
+            return false;
+        }
+        LabelStyle that = (LabelStyle) o;
+        return borderRadius == that.borderRadius
+                && borderWidth == that.borderWidth
+                && borderColor == that.borderColor
+                && borderMargin == that.borderMargin
+                && borderPadding == that.borderPadding
+                && textColor == that.textColor;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = borderRadius;
+        result = 31 * result + borderWidth;
+        result = 31 * result + borderColor;
+        result = 31 * result + borderMargin;
+        result = 31 * result + borderPadding;
+        result = 31 * result + textColor;
+        return result;
+    }
+}
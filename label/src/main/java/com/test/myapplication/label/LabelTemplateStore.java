@@ -0,0 +1,476 @@
+package com.test.myapplication.label;
+
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 19:10 1  模板存储，数据文件内存映射，带偏移索引；列表只读记录头，打开时只解码一条记录，最近打开的有LRU缓存
+ */
+public class LabelTemplateStore implements Closeable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String DATA_FILE_PREFIX = "templates-";
+    private static final String DATA_FILE_SUFFIX = ".dat";
+    private static final String INDEX_FILE = "templates.idx";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int INDEX_MAGIC = 0x4C424958; // "LBIX"
+    private static final int INDEX_VERSION = 2;
+    private static final int INDEX_HEADER_SIZE = 20;  // int magic, int version, int generation, long nextId
+    private static final int INDEX_ENTRY_SIZE = 24;   // long id, long offset, int length, int flags
+    private static final int FLAG_DELETED = 1;
+
+    private static final int RECORD_HEADER_SIZE = 4 + 8 + 4;
+
+    /*
+     * data file: records appended one by one, never changed in place. named by the generation, compact writes a new one.
+     *   record: int nameLength, name in utf-8, long updatedAt, int bodyLength, body (LabelDocumentCodec)
+     * index file: the header, then fixed size entries, rewritten in place.
+     *   compact writes a new index and renames it over the old one, that's the moment the new data file takes effect.
+     */
+
+    /**
+     * the header of a template, reading it never decodes the content.
+     * 模板的记录头，读取时不解码内容。
+     */
+    public static final class Entry {
+        private final long id;
+        private final String name;
+        private final long updatedAt;
+
+        Entry(long id, String name, long updatedAt) {
+            this.id = id;
+            this.name = name;
+            this.updatedAt = updatedAt;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+
+    // position of a template in the data file.
+    private static final class Slot {
+        final int indexPosition;
+        final long offset;
+        final int length;
+
+        Slot(int indexPosition, long offset, int length) {
+            this.indexPosition = indexPosition;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final File directory;
+    private int generation = 0;
+    private RandomAccessFile dataFile;
+    private RandomAccessFile indexFile;
+    private MappedByteBuffer dataBuffer;
+    private long mappedSize = -1;
+
+    private final Map<Long, Slot> slots = new LinkedHashMap<>();
+    private long nextId = 1;
+    private int indexEnd = INDEX_HEADER_SIZE;
+
+    // null if the cache is off.
+    @Nullable
+    private final LruCache<Long, Spanned> decoded;
+
+    /**
+     * open or create the store in the directory.
+     * 打开或创建目录中的模板存储。
+     *
+     * @param directory    directory of the files
+     * @param maxCacheSize max count of the decoded templates kept in memory, 0 to decode on every open
+     * @throws IOException              failed to open or broken index
+     * @throws IllegalArgumentException maxCacheSize is negative
+     */
+    public LabelTemplateStore(File directory, int maxCacheSize) throws IOException {
+        if (maxCacheSize < 0) {
+            throw new IllegalArgumentException("maxCacheSize < 0: " + maxCacheSize);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("can not create " + directory);
+        }
+        this.directory = directory;
+        this.decoded = maxCacheSize > 0 ? new LruCache<>(maxCacheSize) : null;
+        openFiles();
+    }
+
+    private void openFiles() throws IOException {
+        slots.clear();
+        nextId = 1;
+        indexEnd = INDEX_HEADER_SIZE;
+        dataBuffer = null;
+        mappedSize = -1;
+
+        indexFile = new RandomAccessFile(new File(directory, INDEX_FILE), "rw");
+        try {
+            FileChannel channel = indexFile.getChannel();
+            if (channel.size() == 0) {
+                generation = 0;
+                writeHeader(channel, generation, nextId);
+                channel.force(true);
+            } else {
+                loadIndex(channel);
+            }
+            dataFile = new RandomAccessFile(dataFileOf(generation), "rw");
+        } catch (IOException e) {
+            indexFile.close();
+            throw e;
+        }
+        deleteStaleFiles();
+    }
+
+    private void loadIndex(FileChannel channel) throws IOException {
+        MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        try {
+            if (index.getInt() != INDEX_MAGIC || index.getInt() != INDEX_VERSION) {
+                throw new IOException("not a template index");
+            }
+            generation = index.getInt();
+            nextId = Math.max(1, index.getLong());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated template index", e);
+        }
+        while (index.remaining() >= INDEX_ENTRY_SIZE) {
+            int position = index.position();
+            long id = index.getLong();
+            long offset = index.getLong();
+            int length = index.getInt();
+            int flags = index.getInt();
+            if ((flags & FLAG_DELETED) == 0) {
+                slots.put(id, new Slot(position, offset, length));
+            } else {
+                slots.remove(id);
+            }
+            nextId = Math.max(nextId, id + 1);
+            indexEnd = position + INDEX_ENTRY_SIZE;
+        }
+    }
+
+    private static void writeHeader(FileChannel channel, int generation, long nextId) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+        header.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putInt(generation).putLong(nextId).flip();
+        writeFully(channel, header, 0);
+    }
+
+    private File dataFileOf(int generation) {
+        return new File(directory, DATA_FILE_PREFIX + generation + DATA_FILE_SUFFIX);
+    }
+
+    // the data files of the other generations and the temp files are left by an interrupted compact.
+    private void deleteStaleFiles() {
+        File current = dataFileOf(generation);
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            boolean staleData = name.startsWith(DATA_FILE_PREFIX) && !file.equals(current);
+            if (staleData || name.endsWith(TEMP_SUFFIX)) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * list all the templates, only the record headers are read.
+     * 列出全部模板，只读取记录头。
+     *
+     * @return entries in the order of creation
+     * @throws IOException read failed or broken data
+     */
+    public synchronized List<Entry> list() throws IOException {
+        ByteBuffer data = mapData();
+        List<Entry> result = new ArrayList<>(slots.size());
+        for (Map.Entry<Long, Slot> single : slots.entrySet()) {
+            ByteBuffer record = slice(data, single.getValue());
+            try {
+                String name = readName(record);
+                result.add(new Entry(single.getKey(), name, record.getLong()));
+            } catch (BufferUnderflowException e) {
+                throw new IOException("broken template record: " + single.getKey(), e);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * open a template, only this record is decoded, and the recent ones are not decoded again.
+     * the result is a new copy, the caller can edit it freely.
+     * 打开一个模板，只解码这一条记录，最近打开过的不会再次解码。返回的是新的副本，可以随意修改。
+     *
+     * @param id id
+     * @return text with labels, null if not found
+     * @throws IOException read failed or broken data
+     */
+    public synchronized SpannableStringBuilder open(long id) throws IOException {
+        Spanned cached = decoded != null ? decoded.get(id) : null;
+        if (cached == null) {
+            Slot slot = slots.get(id);
+            if (slot == null) {
+                return null;
+            }
+            ByteBuffer record = slice(mapData(), slot);
+            try {
+                readName(record);
+                record.getLong(); // updatedAt
+                int bodyLength = record.getInt();
+                if (bodyLength < 0 || bodyLength > record.remaining()) {
+                    throw new IOException("broken template record: " + id);
+                }
+                record.limit(record.position() + bodyLength);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("broken template record: " + id, e);
+            }
+            cached = LabelDocumentCodec.decode(record);
+            if (decoded != null) {
+                decoded.put(id, cached);
+            }
+        }
+        return copyWithNewSpans(cached);
+    }
+
+    /**
+     * save a new template.
+     * 保存新模板。
+     *
+     * @param name name
+     * @param text text with labels
+     * @return id
+     * @throws IOException write failed
+     */
+    public synchronized long save(String name, Spanned text) throws IOException {
+        long id = nextId;
+        Slot slot = write(id, indexEnd, name, text);
+        // only after both files are written.
+        nextId = id + 1;
+        indexEnd += INDEX_ENTRY_SIZE;
+        slots.put(id, slot);
+        return id;
+    }
+
+    /**
+     * replace the template, the old record is left in the data file until compact.
+     * 更新模板，旧记录留在数据文件中，直到compact。
+     *
+     * @param id   id
+     * @param name name
+     * @param text text with labels
+     * @throws IOException write failed or not found
+     */
+    public synchronized void update(long id, String name, Spanned text) throws IOException {
+        Slot slot = slots.get(id);
+        if (slot == null) {
+            throw new IOException("template not found: " + id);
+        }
+        Slot updated = write(id, slot.indexPosition, name, text);
+        slots.put(id, updated);
+        forget(id);
+    }
+
+    /**
+     * delete the template.
+     * 删除模板。
+     *
+     * @param id id
+     * @throws IOException write failed
+     */
+    public synchronized void delete(long id) throws IOException {
+        Slot slot = slots.get(id);
+        if (slot == null) {
+            return;
+        }
+        writeIndexEntry(id, slot, FLAG_DELETED);
+        slots.remove(id);
+        forget(id);
+    }
+
+    /**
+     * rewrite the files with the live templates only. the new files are written and synced first,
+     * then the new index is renamed over the old one, so the old templates are never lost in the middle.
+     * 只保留有效的模板，重写文件。先写入并同步新文件，再把新索引重命名覆盖旧索引，中途出错也不会丢失原有的模板。
+     *
+     * @throws IOException write failed, the store is still usable with the old files
+     */
+    public synchronized void compact() throws IOException {
+        ByteBuffer data = mapData();
+        int newGeneration = generation + 1;
+        File newData = dataFileOf(newGeneration);
+        File newIndex = new File(directory, INDEX_FILE + TEMP_SUFFIX);
+        try (RandomAccessFile dataOut = new RandomAccessFile(newData, "rw");
+             RandomAccessFile indexOut = new RandomAccessFile(newIndex, "rw")) {
+            dataOut.setLength(0);
+            indexOut.setLength(0);
+            FileChannel dataChannel = dataOut.getChannel();
+            FileChannel indexChannel = indexOut.getChannel();
+            writeHeader(indexChannel, newGeneration, nextId);
+            long offset = 0;
+            int position = INDEX_HEADER_SIZE;
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+            for (Map.Entry<Long, Slot> single : slots.entrySet()) {
+                Slot slot = single.getValue();
+                writeFully(dataChannel, slice(data, slot), offset);
+                entry.clear();
+                entry.putLong(single.getKey()).putLong(offset).putInt(slot.length).putInt(0).flip();
+                writeFully(indexChannel, entry, position);
+                offset += slot.length;
+                position += INDEX_ENTRY_SIZE;
+            }
+            dataChannel.force(true);
+            indexChannel.force(true);
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            newData.delete();
+            //noinspection ResultOfMethodCallIgnored
+            newIndex.delete();
+            throw e;
+        }
+
+        // the old files stay untouched until here.
+        closeFiles();
+        if (!newIndex.renameTo(new File(directory, INDEX_FILE))) {
+            //noinspection ResultOfMethodCallIgnored
+            newData.delete();
+            openFiles();
+            throw new IOException("can not replace the template index");
+        }
+        forgetAll();
+        openFiles();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        forgetAll();
+        closeFiles();
+    }
+
+    private void closeFiles() throws IOException {
+        dataBuffer = null;
+        mappedSize = -1;
+        try {
+            dataFile.close();
+        } finally {
+            indexFile.close();
+        }
+    }
+
+    private void forget(long id) {
+        if (decoded != null) {
+            decoded.remove(id);
+        }
+    }
+
+    private void forgetAll() {
+        if (decoded != null) {
+            decoded.evictAll();
+        }
+    }
+
+    // append the record, then point the index entry to it.
+    private Slot write(long id, int indexPosition, String name, Spanned text) throws IOException {
+        byte[] nameBytes = name.getBytes(UTF_8);
+        byte[] body = LabelDocumentCodec.encode(text);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + nameBytes.length + body.length);
+        record.putInt(nameBytes.length).put(nameBytes)
+                .putLong(System.currentTimeMillis())
+                .putInt(body.length).put(body)
+                .flip();
+
+        FileChannel channel = dataFile.getChannel();
+        long offset = channel.size();
+        writeFully(channel, record, offset);
+        Slot slot = new Slot(indexPosition, offset, record.limit());
+        writeIndexEntry(id, slot, 0);
+        return slot;
+    }
+
+    private void writeIndexEntry(long id, Slot slot, int flags) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        entry.putLong(id).putLong(slot.offset).putInt(slot.length).putInt(flags).flip();
+        writeFully(indexFile.getChannel(), entry, slot.indexPosition);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    // map the data file again only if it grew.
+    private ByteBuffer mapData() throws IOException {
+        FileChannel channel = dataFile.getChannel();
+        long size = channel.size();
+        if (dataBuffer == null || size != mappedSize) {
+            dataBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mappedSize = size;
+        }
+        return dataBuffer;
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, Slot slot) throws IOException {
+        if (slot.offset < 0 || slot.length < RECORD_HEADER_SIZE || slot.offset + slot.length > data.capacity()) {
+            throw new IOException("template record out of the data file");
+        }
+        ByteBuffer record = data.duplicate();
+        record.limit((int) (slot.offset + slot.length));
+        record.position((int) slot.offset);
+        return record.slice();
+    }
+
+    private static String readName(ByteBuffer record) throws IOException {
+        int length = record.getInt();
+        if (length < 0 || length > record.remaining()) {
+            throw new IOException("broken template name");
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    // the labels can't be shared between editors, every copy gets its own span objects.
+    private static SpannableStringBuilder copyWithNewSpans(Spanned source) {
+        SpannableStringBuilder result = new SpannableStringBuilder(source.toString());
+        for (MyLabelSpan span : source.getSpans(0, source.length(), MyLabelSpan.class)) {
+            result.setSpan(span.copy(), source.getSpanStart(span), source.getSpanEnd(span), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+package com.test.myapplication.label;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.text.MeasuredText;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 15:20 1  标签标题的排版缓存，每种画笔配置只测量、塑形一次
+ */
+final class LabelTextCache {
+
+    // a label is usually shown with one or two text sizes, few entries are enough.
+    private static final int MAX_ENTRIES = 4;
+
+    private final String title;
+    private final char[] chars;
+    private final Entry[] entries = new Entry[MAX_ENTRIES];
+    private int nextEntry = 0;
+
+    LabelTextCache(String title) {
+        this.title = title;
+        this.chars = title.toCharArray();
+    }
+
+    String getTitle() {
+        return title;
+    }
+
+    /**
+     * @param paint paint to measure with
+     * @return the width of the title
+     */
+    int getWidth(@NonNull Paint paint) {
+        return obtain(paint).width;
+    }
+
+    /**
+     * draw the title, use the shaped text if the platform supports.
+     * 绘制标题，系统支持时直接使用已塑形的结果。
+     */
+    void draw(@NonNull Canvas canvas, float x, float y, @NonNull Paint paint) {
+        Entry entry = obtain(paint);
+        if (entry.measuredText != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Api29Impl.draw(canvas, entry.measuredText, chars.length, x, y, paint);
+        } else {
+            canvas.drawText(title, x, y, paint);
+        }
+    }
+
+    private Entry obtain(Paint paint) {
+        for (Entry entry : entries) {
+            if (entry != null && entry.matches(paint)) {
+                return entry;
+            }
+        }
+        Entry entry = new Entry(paint);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && chars.length > 0) {
+            entry.measuredText = Api29Impl.measure(chars, paint);
+            entry.width = (int) Api29Impl.getWidth(entry.measuredText, chars.length);
+        } else {
+            entry.width = (int) paint.measureText(title);
+        }
+        entries[nextEntry] = entry;
+        nextEntry = (nextEntry + 1) % MAX_ENTRIES;
+        return entry;
+    }
+
+    // the paint attributes that affect shaping.
+    private static final class Entry {
+        final float textSize;
+        final Typeface typeface;
+        final float textScaleX;
+        final float textSkewX;
+        final float letterSpacing;
+        final int flags;
+
+        int width;
+        Object measuredText; // MeasuredText on Q and above.
+
+        Entry(Paint paint) {
+            textSize = paint.getTextSize();
+            typeface = paint.getTypeface();
+            textScaleX = paint.getTextScaleX();
+            textSkewX = paint.getTextSkewX();
+            letterSpacing = paint.getLetterSpacing();
+            flags = paint.getFlags();
+        }
+
+        boolean matches(Paint paint) {
+            return textSize == paint.getTextSize()
+                    && typeface == paint.getTypeface()
+                    && textScaleX == paint.getTextScaleX()
+                    && textSkewX == paint.getTextSkewX()
+                    && letterSpacing == paint.getLetterSpacing()
+                    && flags == paint.getFlags();
+        }
+    }
+
+    // MeasuredText is what PrecomputedText is made of, and unlike PrecomputedText it can be drawn by canvas directly.
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static final class Api29Impl {
+        static Object measure(char[] chars, Paint paint) {
+            return new MeasuredText.Builder(chars)
+                    .appendStyleRun(paint, chars.length, false)
+                    .build();
+        }
+
+        static float getWidth(Object measuredText, int length) {
+            return ((MeasuredText) measuredText).getWidth(0, length);
+        }
+
+        static void draw(Canvas canvas, Object measuredText, int length, float x, float y, Paint paint) {
+            canvas.drawTextRun((MeasuredText) measuredText, 0, length, 0, length, x, y, false, paint);
+        }
+    }
+}
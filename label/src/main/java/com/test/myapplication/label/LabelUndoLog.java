@@ -0,0 +1,373 @@
+package com.test.myapplication.label;
+
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.TextUtils;
+import android.text.TextWatcher;
+import android.widget.EditText;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2026/10/18 22:10 1  撤销/重做日志，只记录修改的区间，连续输入合并，拖动成组，内存有上限
+ */
+public class LabelUndoLog implements TextWatcher {
+
+    /**
+     * the default memory budget, in bytes.
+     * 默认内存上限，单位字节。
+     */
+    public static final int DEFAULT_MEMORY_BUDGET = 256 * 1024;
+
+    // consecutive typing within this time is undone together.
+    private static final long MERGE_TIMEOUT_MILLIS = 1000;
+
+    // rough cost of the objects around the chars, used for the budget only.
+    private static final int EDIT_OVERHEAD_BYTES = 48;
+    private static final int LABEL_OVERHEAD_BYTES = 96;
+
+    // one replace: [start, start + removed.length()) was replaced by inserted.
+    private static final class Edit {
+        int start;
+        CharSequence removed;
+        CharSequence inserted;
+
+        Edit(int start, CharSequence removed, CharSequence inserted) {
+            this.start = start;
+            this.removed = removed;
+            this.inserted = inserted;
+        }
+    }
+
+    // the edits undone by one step.
+    private static final class Entry {
+        final List<Edit> edits = new ArrayList<>(1);
+        boolean isTyping = false;
+        long time = 0;
+        int bytes = 0;
+    }
+
+    private final EditText editText;
+    private int memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private int usedBytes = 0;
+
+    private final ArrayDeque<Entry> undoStack = new ArrayDeque<>();
+    private final ArrayDeque<Entry> redoStack = new ArrayDeque<>();
+
+    private Entry group = null;
+    private boolean isApplying = false;
+
+    private int pendingStart = -1;
+    private CharSequence pendingRemoved = "";
+
+    /**
+     * create and attach the log to the editText.
+     * 创建并监听编辑框的文字变化。
+     *
+     * @param editText target
+     */
+    public LabelUndoLog(EditText editText) {
+        this.editText = editText;
+        editText.addTextChangedListener(this);
+    }
+
+    /**
+     * stop listening the editText.
+     * 停止监听编辑框。
+     */
+    public void detach() {
+        editText.removeTextChangedListener(this);
+    }
+
+    /**
+     * set the max memory of the history, the oldest steps are dropped first.
+     * 设置历史记录的内存上限，超出时先丢弃最早的记录。
+     *
+     * @param bytes budget in bytes
+     */
+    public void setMemoryBudget(int bytes) {
+        memoryBudget = bytes;
+        trim();
+    }
+
+    public int getUsedBytes() {
+        return usedBytes;
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    /**
+     * true while undo or redo is changing the text, the other watchers should leave the text alone.
+     * undo或redo修改文字时为true，其他监听者不应再修改文字。
+     *
+     * @return applying or not
+     */
+    public boolean isApplying() {
+        return isApplying;
+    }
+
+    /**
+     * all the edits until endGroup are undone in one step, like a drag.
+     * 直到endGroup的全部修改作为一步撤销，比如一次拖动。
+     */
+    public void beginGroup() {
+        if (group == null) {
+            group = new Entry();
+        }
+    }
+
+    public void endGroup() {
+        Entry finished = group;
+        group = null;
+        if (finished != null && !finished.edits.isEmpty()) {
+            push(finished);
+        }
+    }
+
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        group = null;
+        usedBytes = 0;
+    }
+
+    /**
+     * undo one step, the cost depends on the size of the step only.
+     * 撤销一步，耗时只和这一步的大小有关。
+     *
+     * @return false if nothing to undo
+     */
+    public boolean undo() {
+        endGroup();
+        Entry entry = undoStack.pollLast();
+        if (entry == null) {
+            return false;
+        }
+        Editable text = editText.getText();
+        int cursor = 0;
+        isApplying = true;
+        try {
+            for (int i = entry.edits.size() - 1; i >= 0; i--) {
+                Edit edit = entry.edits.get(i);
+                text.replace(edit.start, edit.start + edit.inserted.length(), copyOf(edit.removed));
+                cursor = edit.start + edit.removed.length();
+            }
+        } finally {
+            isApplying = false;
+        }
+        redoStack.addLast(entry);
+        setSelection(cursor);
+        return true;
+    }
+
+    /**
+     * redo one step.
+     * 重做一步。
+     *
+     * @return false if nothing to redo
+     */
+    public boolean redo() {
+        endGroup();
+        Entry entry = redoStack.pollLast();
+        if (entry == null) {
+            return false;
+        }
+        Editable text = editText.getText();
+        int cursor = 0;
+        isApplying = true;
+        try {
+            for (Edit edit : entry.edits) {
+                text.replace(edit.start, edit.start + edit.removed.length(), copyOf(edit.inserted));
+                cursor = edit.start + edit.inserted.length();
+            }
+        } finally {
+            isApplying = false;
+        }
+        entry.isTyping = false;
+        undoStack.addLast(entry);
+        setSelection(cursor);
+        return true;
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        if (!isApplying) {
+            pendingStart = start;
+            pendingRemoved = snapshot(s, start, start + count);
+        }
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+        if (isApplying || pendingStart != start) {
+            return;
+        }
+        Edit edit = new Edit(start, pendingRemoved, snapshot(s, start, start + count));
+        pendingStart = -1;
+        pendingRemoved = "";
+        record(edit);
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+    }
+
+    private void record(Edit edit) {
+        if (isEmpty(edit)) {
+            return;
+        }
+        redoStack.clear();
+        if (group != null) {
+            group.edits.add(edit);
+            group.bytes += sizeOf(edit);
+            return;
+        }
+
+        long now = SystemClock.uptimeMillis();
+        // one char typed or deleted, or the composing text replaced by the input method.
+        boolean typing = isPlain(edit.removed) && isPlain(edit.inserted)
+                && (edit.removed.length() + edit.inserted.length() == 1
+                || edit.removed.length() > 0 && edit.inserted.length() > 0)
+                && TextUtils.indexOf(edit.inserted, '\n') < 0;
+        Entry last = undoStack.peekLast();
+        if (typing && last != null && last.isTyping && now - last.time < MERGE_TIMEOUT_MILLIS
+                && merge(last.edits.get(0), edit)) {
+            usedBytes -= last.bytes;
+            if (isEmpty(last.edits.get(0))) {
+                // typed and deleted again, nothing to undo.
+                undoStack.pollLast();
+                return;
+            }
+            last.time = now;
+            last.bytes = sizeOf(last.edits.get(0));
+            usedBytes += last.bytes;
+            trim();
+            return;
+        }
+
+        Entry entry = new Entry();
+        entry.edits.add(edit);
+        entry.isTyping = typing;
+        entry.time = now;
+        entry.bytes = sizeOf(edit);
+        push(entry);
+    }
+
+    // append a typed char, a backspace or a new composing text to the last typing step.
+    private static boolean merge(Edit last, Edit edit) {
+        String inserted = last.inserted.toString();
+        int insertedEnd = last.start + inserted.length();
+        if (edit.removed.length() == 0) {
+            if (edit.start == insertedEnd) {
+                last.inserted = inserted + edit.inserted;
+                return true;
+            }
+            return false;
+        }
+        // the end of the last inserted text replaced again, like a backspace right after typing,
+        // or the composing text growing or shrinking on every key.
+        int offset = edit.start - last.start;
+        if (offset >= 0 && edit.start + edit.removed.length() == insertedEnd
+                && inserted.endsWith(edit.removed.toString())) {
+            last.inserted = inserted.substring(0, offset) + edit.inserted;
+            return true;
+        }
+        if (inserted.isEmpty() && edit.inserted.length() == 0 && edit.start + edit.removed.length() == last.start) {
+            // one more backspace.
+            last.start = edit.start;
+            last.removed = edit.removed.toString() + last.removed;
+            return true;
+        }
+        return false;
+    }
+
+    // nothing changed, like a char typed and deleted again.
+    private static boolean isEmpty(Edit edit) {
+        return isPlain(edit.removed) && isPlain(edit.inserted) && TextUtils.equals(edit.removed, edit.inserted);
+    }
+
+    private void push(Entry entry) {
+        undoStack.addLast(entry);
+        usedBytes += entry.bytes;
+        trim();
+    }
+
+    private void trim() {
+        while (usedBytes > memoryBudget && !undoStack.isEmpty()) {
+            usedBytes -= undoStack.pollFirst().bytes;
+        }
+        if (undoStack.isEmpty()) {
+            usedBytes = 0;
+        }
+    }
+
+    private void setSelection(int cursor) {
+        editText.setSelection(Math.max(0, Math.min(cursor, editText.length())));
+    }
+
+    private static int sizeOf(Edit edit) {
+        return EDIT_OVERHEAD_BYTES + sizeOf(edit.removed) + sizeOf(edit.inserted);
+    }
+
+    private static int sizeOf(CharSequence text) {
+        int labels = text instanceof Spanned ? ((Spanned) text).getSpans(0, text.length(), MyLabelSpan.class).length : 0;
+        return text.length() * 2 + labels * LABEL_OVERHEAD_BYTES;
+    }
+
+    private static boolean isPlain(CharSequence text) {
+        return !(text instanceof Spanned);
+    }
+
+    // the chars of the range, with copies of the labels fully inside. a plain String if no label.
+    private static CharSequence snapshot(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return "";
+        }
+        String chars = TextUtils.substring(text, start, end);
+        if (!(text instanceof Spanned)) {
+            return chars;
+        }
+        Spanned spanned = (Spanned) text;
+        MyLabelSpan[] spans = spanned.getSpans(start, end, MyLabelSpan.class);
+        SpannableStringBuilder result = null;
+        for (MyLabelSpan span : spans) {
+            int spanStart = spanned.getSpanStart(span);
+            int spanEnd = spanned.getSpanEnd(span);
+            if (spanStart >= start && spanEnd <= end && spanStart < spanEnd) {
+                if (result == null) {
+                    result = new SpannableStringBuilder(chars);
+                }
+                result.setSpan(span.copy(), spanStart - start, spanEnd - start, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            }
+        }
+        return result == null ? chars : result;
+    }
+
+    // a step can be applied many times, every time the labels must be new objects.
+    private static CharSequence copyOf(CharSequence text) {
+        if (!(text instanceof Spanned)) {
+            return text;
+        }
+        Spanned spanned = (Spanned) text;
+        SpannableStringBuilder result = new SpannableStringBuilder(text.toString());
+        for (MyLabelSpan span : spanned.getSpans(0, spanned.length(), MyLabelSpan.class)) {
+            result.setSpan(span.copy(), spanned.getSpanStart(span), spanned.getSpanEnd(span), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        return result;
+    }
+}
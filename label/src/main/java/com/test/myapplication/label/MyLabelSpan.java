@@ -0,0 +1,327 @@
+package com.test.myapplication.label;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.text.Spannable;
+import android.text.SpannableString;
+import android.text.TextPaint;
+import android.text.style.ReplacementSpan;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2022/6/15 09:08 1  可拖动的span对象，支持圆角、边框、margin、padding
+ */
+public class MyLabelSpan extends ReplacementSpan implements Parcelable {
+
+    private static final String TAG = "MyLabelSpan tag";
+
+    // draw the labels by cached bitmaps if set, main thread only.
+    private static LabelBitmapCache bitmapCache = null;
+
+    private final String labelTitle;       //显示文本，不可修改。 the title for show, not allow to edit.
+    private final String labelValue;       //文本内容，不可见的内容。 the value that the tag carries.
+    private final LabelStyle style;        //共享的样式。 the shared style.
+
+    private float textSize = 0;
+
+    private int mSize;
+    private RectF mRectF = null; //created when drawn.
+
+    // measured and shaped title for each paint configuration, shared by the copies.
+    // 标题的测量和塑形缓存，按画笔配置缓存，副本之间共享。
+    private final LabelTextCache textCache;
+
+    private int spanStart = 0; //拖动时用来记录位置的
+    private int spanEnd = 0;   //拖动时用来记录位置的
+    private boolean spanDeletedTemp = false; //临时删除了
+
+    public MyLabelSpan(
+            String labelShowTitle, //显示文本，不可修改。 the title for show, not allow to edit.
+            String labelValue,     //文本内容，不可见的内容。 the value that the tag carries.
+            int borderRadius,
+            int borderWidth,
+            int borderColor,
+            int borderMargin,
+            int borderPadding,
+            int textColor) {
+        this(labelShowTitle,
+                labelValue,
+                LabelStyle.obtain(borderRadius, borderWidth, borderColor, borderMargin, borderPadding, textColor));
+    }
+
+    public MyLabelSpan(
+            String labelShowTitle, //显示文本，不可修改。 the title for show, not allow to edit.
+            String labelValue,     //文本内容，不可见的内容。 the value that the tag carries.
+            LabelStyle style) {
+        super();
+        this.labelTitle = labelShowTitle;
+        this.labelValue = labelValue;
+        this.style = style;
+        this.textCache = new LabelTextCache(labelShowTitle);
+    }
+
+    // copies share the style and the text cache.
+    private MyLabelSpan(MyLabelSpan source) {
+        super();
+        this.labelTitle = source.labelTitle;
+        this.labelValue = source.labelValue;
+        this.style = source.style;
+        this.textCache = source.textCache;
+    }
+
+    /**
+     * optional render mode, draw every distinct label once into a bitmap and then only draw the bitmap. null to turn off.
+     * 可选的绘制模式，每种标签只绘制一次到位图，之后直接绘制位图。传null关闭。
+     *
+     * @param cache bitmap cache
+     */
+    public static void setBitmapCache(@Nullable LabelBitmapCache cache) {
+        bitmapCache = cache;
+    }
+
+    public SpannableString getSpannableString() {
+        SpannableString ss = new SpannableString(labelTitle);
+        ss.setSpan(this, 0, labelTitle.length(), Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+        return ss;
+    }
+
+    public String getLabelTitle() {
+        return labelTitle;
+    }
+
+    public String getLabelValue() {
+        return labelValue;
+    }
+
+    public LabelStyle getStyle() {
+        return style;
+    }
+
+    public int getTextColor() {
+        return style.getTextColor();
+    }
+
+    public float getTextSize() {
+        return textSize;
+    }
+
+    public int getBorderMargin() {
+        return style.getBorderMargin();
+    }
+
+    /**
+     * the width of the border, without margin. valid after measured.
+     * 边框的宽度，不含margin，测量后有效。
+     *
+     * @return width
+     */
+    public int getChipWidth() {
+        return mSize + style.getBorderPadding() * 2;
+    }
+
+    /**
+     * the width of the border measured with the paint, the span is not changed.
+     * 用画笔测量边框的宽度，不修改span。
+     *
+     * @param paint paint
+     * @return width
+     */
+    int getChipWidth(@NonNull Paint paint) {
+        return measureTitle(paint) + style.getBorderPadding() * 2;
+    }
+
+    public int getSpanStart() {
+        return spanStart;
+    }
+
+    public void setSpanStart(int spanStart) {
+        this.spanStart = spanStart;
+    }
+
+    public int getSpanEnd() {
+        return spanEnd;
+    }
+
+    public void setSpanEnd(int spanEnd) {
+        this.spanEnd = spanEnd;
+    }
+
+    public boolean isSpanDeletedTemp() {
+        return spanDeletedTemp;
+    }
+
+    public void setSpanDeletedTemp(boolean spanDeletedTemp) {
+        this.spanDeletedTemp = spanDeletedTemp;
+    }
+
+    @Override
+    public void updateDrawState(TextPaint ds) {
+        super.updateDrawState(ds);
+        ds.setUnderlineText(false);
+    }
+
+    public MyLabelSpan copy() {
+        return new MyLabelSpan(this);
+    }
+
+    public RectF getRectF() {
+        if (mRectF == null) {
+            mRectF = new RectF();
+        }
+        return mRectF;
+    }
+
+    public RectF getRectFByOffset(int paddingLeft, int paddingTop) {
+        RectF result = new RectF(getRectF());
+        result.offset(paddingLeft, paddingTop);
+        return result;
+    }
+
+    @Override
+    public int getSize(@NonNull Paint paint,
+                       CharSequence text,
+                       int start,
+                       int end,
+                       Paint.FontMetricsInt fm) {
+        long metricStart = LabelMetrics.begin(LabelMetrics.MEASURE);
+        try {
+            mSize = measureTitle(paint);
+            return mSize + style.getBorderPadding() * 2 + style.getBorderMargin() * 2;
+        } finally {
+            LabelMetrics.end(LabelMetrics.MEASURE, metricStart);
+        }
+    }
+
+    /**
+     * measure the title only, never touch the whole text. the result is cached for each paint configuration.
+     * 只测量标题本身，不拼接整段文本；按画笔配置缓存结果。
+     *
+     * @param paint paint
+     * @return title width
+     */
+    private int measureTitle(@NonNull Paint paint) {
+        return textCache.getWidth(paint);
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas,
+                     CharSequence text,
+                     int start,
+                     int end,
+                     float x,
+                     int top,
+                     int y, // baseline
+                     int bottom,
+                     @NonNull Paint paint) {
+        long metricStart = LabelMetrics.begin(LabelMetrics.DRAW);
+        try {
+            textSize = paint.getTextSize();
+            mSize = measureTitle(paint);
+            float borderStartX = x + style.getBorderMargin();
+
+            LabelBitmapCache cache = bitmapCache;
+            if (cache != null) {
+                getRectF().set(borderStartX, y + paint.ascent(), borderStartX + getChipWidth(), y + paint.descent());
+                cache.draw(this, canvas, borderStartX, y, paint);
+            } else {
+                drawChip(canvas, borderStartX, y, paint, getRectF());
+            }
+        } finally {
+            LabelMetrics.end(LabelMetrics.DRAW, metricStart);
+        }
+    }
+
+    /**
+     * draw the border and the title.
+     * 绘制边框和标题。
+     *
+     * @param canvas   canvas
+     * @param left     left of the border
+     * @param baseline baseline
+     * @param paint    paint, restored after drawn
+     * @param rectF    receive the bounds of the border
+     */
+    void drawChip(@NonNull Canvas canvas, float left, float baseline, @NonNull Paint paint, RectF rectF) {
+        int defaultColor = paint.getColor();
+        float defaultStrokeWidth = paint.getStrokeWidth();
+        int borderPadding = style.getBorderPadding();
+        int chipWidth = getChipWidth(paint);
+
+        paint.setColor(style.getBorderColor());
+        paint.setStyle(Paint.Style.STROKE);
+
+//        if (BuildConfig.DEBUG) {
+//            //random bg for debug
+//            paint.setStyle(Paint.Style.FILL_AND_STROKE);
+//            Random random = new Random();
+//            int ranColor = 0xff000000 | random.nextInt(0x00ffffff);
+//            paint.setColor(ranColor);
+//        }
+
+        paint.setStrokeWidth(style.getBorderWidth());
+        paint.setAntiAlias(true);
+        //seems not right, but it's really in the center.
+        rectF.set(left, baseline + paint.ascent(), left + chipWidth, baseline + paint.descent());
+        canvas.drawRoundRect(rectF, style.getBorderRadius(), style.getBorderRadius(), paint);
+
+        paint.setColor(style.getTextColor());
+        paint.setStyle(Paint.Style.FILL);
+        paint.setStrokeWidth(defaultStrokeWidth);
+
+        textCache.draw(canvas, left + borderPadding, baseline, paint);
+
+        paint.setColor(defaultColor);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(labelTitle);
+        dest.writeString(labelValue);
+        dest.writeInt(style.getBorderRadius());
+        dest.writeInt(style.getBorderWidth());
+        dest.writeInt(style.getBorderColor());
+        dest.writeInt(style.getBorderMargin());
+        dest.writeInt(style.getBorderPadding());
+        dest.writeInt(style.getTextColor());
+    }
+
+    MyLabelSpan(Parcel source) {
+        labelTitle = source.readString();
+        labelValue = source.readString();
+        style = LabelStyle.obtain(
+                source.readInt(),
+                source.readInt(),
+                source.readInt(),
+                source.readInt(),
+                source.readInt(),
+                source.readInt());
+        textCache = new LabelTextCache(labelTitle);
+    }
+
+    public static final Creator<MyLabelSpan> CREATOR = new Creator<MyLabelSpan>() {
+        @Override
+        public MyLabelSpan createFromParcel(Parcel source) {
+            return new MyLabelSpan(source);
+        }
+
+        @Override
+        public MyLabelSpan[] newArray(int size) {
+            return new MyLabelSpan[size];
+        }
+    };
+}
\ No newline at end of file
@@ -0,0 +1,1481 @@
+package com.test.myapplication.label;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.InputType;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.util.TypedValue;
+import android.view.ActionMode;
+import android.view.Choreographer;
+import android.view.DragEvent;
+import android.view.HapticFeedbackConstants;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.test.myapplication.label.core.Label;
+import com.test.myapplication.label.core.LabelBatchConverter;
+import com.test.myapplication.label.core.LabelDocument;
+import com.test.myapplication.label.core.LabelMatcher;
+import com.test.myapplication.label.core.LabelParser;
+import com.test.myapplication.label.core.LabelSearchIndex;
+import com.test.myapplication.label.core.LabelStreamParser;
+import com.test.myapplication.label.core.LabelStreamSerializer;
+import com.test.myapplication.label.core.LabelTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copyright (C), 2021-2099
+ *
+ * @author Cooper
+ * History:
+ * author - date - version - desc
+ * Cooper 2022/6/20 11:40 1  EditText中可拖动的span助手类
+ */
+public class MyLabelSpanHelper {
+    private static final String TAG = MyLabelSpanHelper.class.getSimpleName();
+
+    // heavy work like building the texts runs here, one by one.
+    static final ExecutorService BACKGROUND_EXECUTOR = Executors.newSingleThreadExecutor();
+    static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    /**
+     * set the main editText. Note, editText need inside frameLayout etc, otherwise it will relayout.
+     * 设置主要的编辑框
+     * 注意：编辑框需要用FrameLayout等包裹一下，否则动态插入view的时候可能乱跳。
+     *
+     * @param editText main edit text
+     * @return this
+     */
+    public MyLabelSpanHelper setMainEditText(EditText editText) {
+        mainEditText = editText;
+        initMainEditText();
+        return this;
+    }
+
+    private EditText mainEditText;
+
+    private void initMainEditText() {
+        if (occurrenceIndex != null) {
+            occurrenceIndex.detach();
+            occurrenceIndex = null;
+        }
+        if (mainEditText != null) {
+            mainEditText.setSingleLine(false);
+
+            disableEditTextClipBoard(mainEditText);
+
+            setTouchToDragForEditText((ViewGroup) mainEditText.getParent(), mainEditText, mainEditText);
+
+            mainEditText.setOnDragListener(mOnDragListener);
+        }
+        setIncrementalTokenizeEnabled(isIncrementalTokenizeEnabled);
+        setUndoEnabled(isUndoEnabled);
+    }
+
+    private boolean isIncrementalTokenizeEnabled = false;
+    private LabelIncrementalTokenizer incrementalTokenizer = null;
+
+    /**
+     * convert the label values typed or pasted into the main editText to labels at once.
+     * only the edited range and its neighborhood are scanned, so the cost depends on the edit, not the whole text.
+     * 把主编辑框中输入或粘贴的标签值立即转为标签。只扫描修改的区间及其附近，耗时只和修改的大小有关，与全文长度无关。
+     *
+     * @param enabled enable or not
+     * @return this
+     */
+    public MyLabelSpanHelper setIncrementalTokenizeEnabled(boolean enabled) {
+        isIncrementalTokenizeEnabled = enabled;
+        if (incrementalTokenizer != null) {
+            incrementalTokenizer.detach();
+            incrementalTokenizer = null;
+        }
+        if (enabled && mainEditText != null) {
+            incrementalTokenizer = new LabelIncrementalTokenizer(mainEditText, this);
+        }
+        return this;
+    }
+
+    /**
+     * record the counts and the durations of measure, draw, parse, serialize, hit test and drag frames,
+     * also shown as trace sections in systrace or Perfetto. off by default, almost no cost when off.
+     * read the records by LabelMetrics.
+     * 统计测量、绘制、解析、序列化、点击测试以及拖动帧的次数和耗时，并在systrace或Perfetto中显示为Trace区段。
+     * 默认关闭，关闭时几乎没有开销。通过LabelMetrics读取统计结果。
+     *
+     * @param enabled enable or not
+     */
+    public static void setMetricsEnabled(boolean enabled) {
+        LabelMetrics.setEnabled(enabled);
+    }
+
+    /**
+     * receive every record, used for exporting to your own telemetry.
+     * 接收每一条记录，用于导出到自己的统计系统。
+     *
+     * @param listener listener, null to remove
+     */
+    public static void setOnMetricListener(@Nullable LabelMetrics.OnMetricListener listener) {
+        LabelMetrics.setOnMetricListener(listener);
+    }
+
+    private boolean isUndoEnabled = false;
+    private int undoMemoryBudget = LabelUndoLog.DEFAULT_MEMORY_BUDGET;
+    private LabelUndoLog undoLog = null;
+
+    /**
+     * record the edits of the main editText for undo and redo. only the changed ranges are kept,
+     * consecutive typing is merged, a drag is one step, and the oldest steps are dropped when the budget is used up.
+     * 记录主编辑框的修改，用于撤销和重做。只保存修改的区间，连续输入合并为一步，一次拖动为一步，超出内存上限时丢弃最早的记录。
+     *
+     * @param enabled enable or not
+     * @return this
+     */
+    public MyLabelSpanHelper setUndoEnabled(boolean enabled) {
+        isUndoEnabled = enabled;
+        if (undoLog != null) {
+            undoLog.detach();
+            undoLog = null;
+        }
+        if (enabled && mainEditText != null) {
+            undoLog = new LabelUndoLog(mainEditText);
+            undoLog.setMemoryBudget(undoMemoryBudget);
+        }
+        return this;
+    }
+
+    /**
+     * set the max memory of the undo history, in bytes.
+     * 设置撤销记录的内存上限，单位字节。
+     *
+     * @param bytes budget
+     * @return this
+     */
+    public MyLabelSpanHelper setUndoMemoryBudget(int bytes) {
+        undoMemoryBudget = bytes;
+        if (undoLog != null) {
+            undoLog.setMemoryBudget(bytes);
+        }
+        return this;
+    }
+
+    public boolean canUndo() {
+        return undoLog != null && undoLog.canUndo();
+    }
+
+    public boolean canRedo() {
+        return undoLog != null && undoLog.canRedo();
+    }
+
+    /**
+     * undo one step of the main editText.
+     * 撤销主编辑框的一步修改。
+     *
+     * @return false if nothing to undo
+     */
+    public boolean undo() {
+        return undoLog != null && undoLog.undo();
+    }
+
+    /**
+     * redo one step of the main editText.
+     * 重做主编辑框的一步修改。
+     *
+     * @return false if nothing to redo
+     */
+    public boolean redo() {
+        return undoLog != null && undoLog.redo();
+    }
+
+    /**
+     * forget the undo history, like after a new template is loaded.
+     * 清空撤销记录，比如加载了新的模板之后。
+     */
+    public void clearUndoHistory() {
+        if (undoLog != null) {
+            undoLog.clear();
+        }
+    }
+
+    boolean isUndoApplying() {
+        return undoLog != null && undoLog.isApplying();
+    }
+
+    private LabelOccurrenceIndex occurrenceIndex = null;
+
+    /**
+     * the index of the labels in the main editText, kept up to date while editing.
+     * answers how many times a label appears, where it is, and which variables are used, without scanning the spans.
+     * 主编辑框中标签的索引，编辑时实时更新。可以查询标签出现的次数、位置以及用到了哪些变量，不需要遍历span。
+     *
+     * @return index, null if the main editText is not set
+     */
+    @Nullable
+    public LabelOccurrenceIndex getOccurrenceIndex() {
+        if (occurrenceIndex == null && mainEditText != null) {
+            occurrenceIndex = new LabelOccurrenceIndex(mainEditText);
+        }
+        return occurrenceIndex;
+    }
+
+    /**
+     * the values of all the labels used in the main editText.
+     * 主编辑框中用到的全部标签的值。
+     *
+     * @return values, a live view
+     */
+    public Set<String> getReferencedVariables() {
+        LabelOccurrenceIndex index = getOccurrenceIndex();
+        return index == null ? Collections.<String>emptySet() : index.getVariables();
+    }
+
+    /**
+     * render the announcement texts of the main editText ahead, at the times the used variables change,
+     * like every hour for %hour%. the texts are rendered in background and rendered again after the text is edited.
+     * 按用到的变量变化的时间，预先渲染主编辑框的报时文本，比如%hour%每小时变化一次。在后台渲染，编辑后自动重新渲染。
+     *
+     * @param count    how many texts rendered ahead
+     * @param timeZone time zone of the values
+     * @return scheduler, detach it when no longer used. null if the main editText is not set
+     */
+    @Nullable
+    public LabelRenderAheadScheduler createRenderAheadScheduler(int count, TimeZone timeZone) {
+        if (mainEditText == null) {
+            return null;
+        }
+        return new LabelRenderAheadScheduler(mainEditText, count, timeZone);
+    }
+
+    //region data source , uneditable edittext, the label container.
+
+    /**
+     * set the edit to hold all the labels. Note, editText need inside frameLayout etc, otherwise it will relayout.
+     * 设置存放全部标签的编辑框
+     * 注意：编辑框需要用FrameLayout等包裹一下，否则动态插入view的时候可能乱跳。
+     *
+     * @param editText container
+     * @return this
+     */
+    public MyLabelSpanHelper setLabelProviderEditText(EditText editText) {
+        labelProviderEditText = editText;
+        initLabelProviderEditText();
+        return this;
+    }
+
+    private EditText labelProviderEditText;
+
+    private void initLabelProviderEditText() {
+        if (labelProviderEditText != null) {
+            // forbid edit for the provider.
+            labelProviderEditText.setInputType(InputType.TYPE_NULL);
+            labelProviderEditText.setSingleLine(false);
+
+            setLabels(labels);
+            // same as the editor
+            setTouchToDragForEditText((ViewGroup) labelProviderEditText.getParent(), labelProviderEditText, null);
+        }
+    }
+
+    private LabelPaletteAdapter paletteAdapter = null;
+
+    /**
+     * show all the labels in a recyclerView instead of an editText, only the visible labels are measured and drawn,
+     * so it works well with thousands of labels. long press a label to drag it into the main editText.
+     * a vertical LinearLayoutManager is set if there is none.
+     * 用RecyclerView代替编辑框显示全部标签，只有可见的标签才会测量和绘制，标签很多时也不会卡顿。长按标签拖动到主编辑框。
+     * 如果没有设置LayoutManager，会设置一个竖直的LinearLayoutManager。
+     *
+     * @param recyclerView palette
+     * @return this
+     */
+    public MyLabelSpanHelper setLabelPaletteRecyclerView(RecyclerView recyclerView) {
+        if (recyclerView.getLayoutManager() == null) {
+            recyclerView.setLayoutManager(new LinearLayoutManager(recyclerView.getContext()));
+        }
+        paletteAdapter = new LabelPaletteAdapter();
+        refreshPalette();
+        recyclerView.setAdapter(paletteAdapter);
+        return this;
+    }
+
+    private String paletteQuery = "";
+
+    /**
+     * show only the labels matching the query in the palette, the provider editText is not touched.
+     * see searchLabels for the order.
+     * 面板中只显示匹配的标签，不会重建标签容器编辑框。排序见searchLabels。
+     *
+     * @param query query, empty to show all
+     * @return this
+     */
+    public MyLabelSpanHelper filterPalette(String query) {
+        paletteQuery = query;
+        refreshPalette();
+        return this;
+    }
+
+    private void refreshPalette() {
+        if (paletteAdapter != null) {
+            paletteAdapter.setLabels(paletteQuery.isEmpty() ? labels : searchLabels(paletteQuery));
+        }
+    }
+
+    /**
+     * find the labels whose title or value contains the query, ignoring case, through the index built with the labels.
+     * the exact matches come first, then the prefix matches, then the others.
+     * 通过设置标签时建立的索引，查找标题或值包含查询内容的标签，忽略大小写。完全匹配的在前，其次是前缀匹配，最后是其他。
+     *
+     * @param query query
+     * @return matched labels
+     */
+    public List<MyLabelSpan> searchLabels(String query) {
+        CompiledLabels compiled = compiledLabels;
+        int[] found = compiled.getSearchIndex().search(query);
+        List<MyLabelSpan> result = new ArrayList<>(found.length);
+        for (int index : found) {
+            result.add(compiled.labels[index]);
+        }
+        return result;
+    }
+
+    private List<MyLabelSpan> labels = new ArrayList<>();
+
+    // always the same labels as the list above, find all the labels in one pass.
+    private volatile CompiledLabels compiledLabels = new CompiledLabels(new ArrayList<>());
+
+    // increased on every label set, so an older async load won't overwrite a newer one. add/remove/replace keep it.
+    private int labelsLoadToken = 0;
+
+    // add/remove/replace made while an async load is running, replayed on the loaded labels. null if no load is running.
+    // each one is {old label, new label}, null old for add, null new for remove.
+    private List<MyLabelSpan[]> pendingLabelEdits = null;
+
+    /**
+     * set all the labels
+     * 设置标签
+     *
+     * @param labels all the labels
+     * @return this
+     */
+    public MyLabelSpanHelper setLabels(List<MyLabelSpan> labels) {
+        this.labels = new ArrayList<>(labels);
+        this.compiledLabels = new CompiledLabels(this.labels);
+        labelsLoadToken++;
+        pendingLabelEdits = null;
+        if (labelProviderEditText != null) {
+            // one commit, the watchers and the layout only run once.
+            labelProviderEditText.setText(buildProviderText(this.labels));
+        }
+        refreshPalette();
+        return this;
+    }
+
+    /**
+     * set all the labels, the provider text and the matchers are built in background, then committed in main thread.
+     * add/remove/replace called before the commit are applied to these labels again after it.
+     * 异步设置标签，在后台线程构建标签容器的文本，然后在主线程一次性提交。提交前调用的添加、移除、替换会在提交后再次应用到这组标签上。
+     *
+     * @param labels all the labels
+     * @return this
+     */
+    public MyLabelSpanHelper setLabelsAsync(List<MyLabelSpan> labels) {
+        final List<MyLabelSpan> snapshot = new ArrayList<>(labels);
+        final int token = ++labelsLoadToken;
+        pendingLabelEdits = new ArrayList<>();
+        BACKGROUND_EXECUTOR.execute(() -> {
+            final CompiledLabels compiled = new CompiledLabels(snapshot);
+            compiled.prepare();
+            final SpannableStringBuilder providerText = buildProviderText(snapshot);
+            MAIN_HANDLER.post(() -> {
+                if (token != labelsLoadToken) {
+                    return;
+                }
+                List<MyLabelSpan[]> edits = pendingLabelEdits;
+                pendingLabelEdits = null;
+                CompiledLabels edited = compiled;
+                for (MyLabelSpan[] edit : edits) {
+                    edited = applyLabelEdit(snapshot, edited, edit[0], edit[1]);
+                }
+                this.labels = snapshot;
+                this.compiledLabels = edited;
+                if (edited != compiled) {
+                    prepareInBackground(edited);
+                }
+                if (labelProviderEditText != null) {
+                    labelProviderEditText.setText(edits.isEmpty() ? providerText : buildProviderText(snapshot));
+                }
+                refreshPalette();
+            });
+        });
+        return this;
+    }
+
+    /**
+     * add one label to the end, the provider is not rebuilt.
+     * 在末尾添加一个标签，不重建标签容器。
+     *
+     * @param label label to add
+     * @return this
+     */
+    public MyLabelSpanHelper addLabel(MyLabelSpan label) {
+        editLabels(null, label);
+        if (labelProviderEditText != null) {
+            labelProviderEditText.getText().append(buildProviderText(Collections.singletonList(label)));
+        }
+        if (paletteAdapter != null) {
+            if (paletteQuery.isEmpty()) {
+                paletteAdapter.addLabel(label);
+            } else {
+                refreshPalette();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * remove one label, only the range of the label is deleted from the provider.
+     * 移除一个标签，只删除标签容器中对应的区间。
+     *
+     * @param label label to remove, the same object given before
+     * @return this
+     */
+    public MyLabelSpanHelper removeLabel(MyLabelSpan label) {
+        if (!editLabels(label, null)) {
+            return this;
+        }
+        if (labelProviderEditText != null) {
+            Editable text = labelProviderEditText.getText();
+            int start = text.getSpanStart(label);
+            if (start >= 0) {
+                int end = text.getSpanEnd(label);
+                // the separator after it.
+                if (end < text.length() && text.charAt(end) == ' ') {
+                    end++;
+                }
+                text.delete(start, end);
+            }
+        }
+        if (paletteAdapter != null) {
+            if (paletteQuery.isEmpty()) {
+                paletteAdapter.removeLabel(label);
+            } else {
+                refreshPalette();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * replace one label by another, only the range of the label is replaced in the provider.
+     * 替换一个标签，只替换标签容器中对应的区间。
+     *
+     * @param oldLabel label to replace, the same object given before
+     * @param newLabel new label
+     * @return this
+     */
+    public MyLabelSpanHelper replaceLabel(MyLabelSpan oldLabel, MyLabelSpan newLabel) {
+        if (!editLabels(oldLabel, newLabel)) {
+            return this;
+        }
+        if (labelProviderEditText != null) {
+            Editable text = labelProviderEditText.getText();
+            int start = text.getSpanStart(oldLabel);
+            if (start >= 0) {
+                text.replace(start, text.getSpanEnd(oldLabel), newLabel.getSpannableString());
+            }
+        }
+        if (paletteAdapter != null) {
+            if (paletteQuery.isEmpty()) {
+                paletteAdapter.replaceLabel(oldLabel, newLabel);
+            } else {
+                refreshPalette();
+            }
+        }
+        return this;
+    }
+
+    CompiledLabels getCompiledLabels() {
+        return compiledLabels;
+    }
+
+    // edit the current labels, and remember it for the async load that is running.
+    private boolean editLabels(@Nullable MyLabelSpan oldLabel, @Nullable MyLabelSpan newLabel) {
+        if (pendingLabelEdits != null) {
+            pendingLabelEdits.add(new MyLabelSpan[]{oldLabel, newLabel});
+        }
+        CompiledLabels edited = applyLabelEdit(labels, compiledLabels, oldLabel, newLabel);
+        if (edited == compiledLabels) {
+            return false;
+        }
+        compiledLabels = edited;
+        prepareInBackground(edited);
+        return true;
+    }
+
+    // add with null old label, remove with null new label. the same compiled labels if the old label is not found.
+    private static CompiledLabels applyLabelEdit(List<MyLabelSpan> labels, CompiledLabels compiled,
+                                                 @Nullable MyLabelSpan oldLabel, @Nullable MyLabelSpan newLabel) {
+        if (oldLabel == null) {
+            labels.add(newLabel);
+            return compiled.withAdded(newLabel);
+        }
+        int index = labels.indexOf(oldLabel);
+        if (index < 0) {
+            return compiled;
+        }
+        if (newLabel == null) {
+            labels.remove(index);
+            return compiled.withRemoved(index);
+        }
+        labels.set(index, newLabel);
+        return compiled.withReplaced(index, newLabel);
+    }
+
+    // build the matchers before they are needed, skipped if the labels have changed again.
+    private void prepareInBackground(final CompiledLabels compiled) {
+        BACKGROUND_EXECUTOR.execute(() -> {
+            if (compiled == compiledLabels) {
+                compiled.prepare();
+            }
+        });
+    }
+
+    // all the labels with a space after each one, spans are set on the plain text in one go.
+    private static SpannableStringBuilder buildProviderText(List<MyLabelSpan> labels) {
+        StringBuilder content = new StringBuilder();
+        for (MyLabelSpan label : labels) {
+            content.append(label.getLabelTitle()).append(' ');
+        }
+        SpannableStringBuilder result = new SpannableStringBuilder(content);
+        int start = 0;
+        for (MyLabelSpan label : labels) {
+            int end = start + label.getLabelTitle().length();
+            result.setSpan(label, start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * the labels and the matchers built from them, never changed after created.
+     * the matchers are built on the first use, so many edits in a row only build them once.
+     * 标签以及对应的匹配器，创建后不再修改。匹配器在第一次使用时构建，连续多次修改只构建一次。
+     */
+    static final class CompiledLabels {
+        final MyLabelSpan[] labels;
+        private final Label[] models;
+        private volatile LabelParser parser;
+        private volatile LabelSearchIndex searchIndex;
+        private volatile Map<Label, MyLabelSpan> spansByLabel;
+
+        CompiledLabels(List<MyLabelSpan> labels) {
+            this.labels = labels.toArray(new MyLabelSpan[0]);
+            this.models = new Label[this.labels.length];
+            for (int i = 0; i < models.length; i++) {
+                models[i] = toLabel(this.labels[i]);
+            }
+        }
+
+        private CompiledLabels(MyLabelSpan[] labels, Label[] models) {
+            this.labels = labels;
+            this.models = models;
+        }
+
+        CompiledLabels withAdded(MyLabelSpan label) {
+            MyLabelSpan[] newLabels = Arrays.copyOf(labels, labels.length + 1);
+            Label[] newModels = Arrays.copyOf(models, models.length + 1);
+            newLabels[labels.length] = label;
+            newModels[models.length] = toLabel(label);
+            return new CompiledLabels(newLabels, newModels);
+        }
+
+        CompiledLabels withRemoved(int index) {
+            MyLabelSpan[] newLabels = new MyLabelSpan[labels.length - 1];
+            Label[] newModels = new Label[models.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, newLabels.length - index);
+            System.arraycopy(models, 0, newModels, 0, index);
+            System.arraycopy(models, index + 1, newModels, index, newModels.length - index);
+            return new CompiledLabels(newLabels, newModels);
+        }
+
+        CompiledLabels withReplaced(int index, MyLabelSpan label) {
+            MyLabelSpan[] newLabels = labels.clone();
+            Label[] newModels = models.clone();
+            newLabels[index] = label;
+            newModels[index] = toLabel(label);
+            return new CompiledLabels(newLabels, newModels);
+        }
+
+        // build everything now, called in background.
+        void prepare() {
+            getParser();
+            getSearchIndex();
+            getSpansByLabel();
+        }
+
+        LabelParser getParser() {
+            LabelParser result = parser;
+            if (result == null) {
+                synchronized (this) {
+                    result = parser;
+                    if (result == null) {
+                        result = new LabelParser(Arrays.asList(models));
+                        parser = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        LabelSearchIndex getSearchIndex() {
+            LabelSearchIndex result = searchIndex;
+            if (result == null) {
+                synchronized (this) {
+                    result = searchIndex;
+                    if (result == null) {
+                        result = new LabelSearchIndex(Arrays.asList(models));
+                        searchIndex = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        // for the same label the first span wins.
+        Map<Label, MyLabelSpan> getSpansByLabel() {
+            Map<Label, MyLabelSpan> result = spansByLabel;
+            if (result == null) {
+                synchronized (this) {
+                    result = spansByLabel;
+                    if (result == null) {
+                        result = new HashMap<>();
+                        for (int i = 0; i < models.length; i++) {
+                            if (!result.containsKey(models[i])) {
+                                result.put(models[i], labels[i]);
+                            }
+                        }
+                        spansByLabel = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        LabelMatcher getMatcher(boolean byLabelValue) {
+            return getParser().getMatcher(byLabelValue);
+        }
+    }
+
+    /**
+     * get the content
+     * 获取最终结果
+     *
+     * @param replaceByLabelValue replace the labels by the label value or title 使用value替换标签还是使用title替换标签
+     * @return result string only. no span.
+     */
+    public String getFinalContentString(boolean replaceByLabelValue) {
+        return getFinalContentString(mainEditText.getText(), replaceByLabelValue);
+    }
+
+    /**
+     * get the content of any text with labels. one pass, the source text will not be touched.
+     * 获取任意带标签文本的最终结果，只遍历一次，不修改原文本。
+     *
+     * @param text                text with labels
+     * @param replaceByLabelValue replace the labels by the label value or title 使用value替换标签还是使用title替换标签
+     * @return result string only. no span.
+     */
+    public static String getFinalContentString(Spanned text, boolean replaceByLabelValue) {
+        long metricStart = LabelMetrics.begin(LabelMetrics.SERIALIZE);
+        try {
+            return buildFinalContentString(text, replaceByLabelValue);
+        } finally {
+            LabelMetrics.end(LabelMetrics.SERIALIZE, metricStart);
+        }
+    }
+
+    private static String buildFinalContentString(Spanned text, boolean replaceByLabelValue) {
+        int length = text.length();
+        MyLabelSpan[] spans = getSortedLabelSpans(text);
+        int extra = 0;
+        for (MyLabelSpan span : spans) {
+            extra += (replaceByLabelValue ? span.getLabelValue() : span.getLabelTitle()).length();
+        }
+
+        StringBuilder builder = new StringBuilder(length + extra);
+        int index = 0;
+        for (MyLabelSpan span : spans) {
+            builder.append(text, index, text.getSpanStart(span));
+            builder.append(replaceByLabelValue ? span.getLabelValue() : span.getLabelTitle());
+            index = text.getSpanEnd(span);
+        }
+        if (index < length) {
+            builder.append(text, index, length);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * write the content of the main editText to the writer, see the static one.
+     * 把主编辑框的内容写入writer，见静态方法。
+     *
+     * @param out                 output, not closed
+     * @param replaceByLabelValue replace the labels by the label value or title
+     * @throws IOException write failed
+     */
+    public void writeFinalContent(Writer out, boolean replaceByLabelValue) throws IOException {
+        writeFinalContent(mainEditText.getText(), replaceByLabelValue, out);
+    }
+
+    /**
+     * stream the content of any text with labels to the writer, no copy of the whole text is made.
+     * "%" and "\" in the text are escaped, read it back by getSpannableStringByReplaceLabels(Reader, boolean).
+     * 把任意带标签文本的最终结果流式写入writer，不会复制整段文本。文本中的"%"和"\"会被转义，
+     * 用getSpannableStringByReplaceLabels(Reader, boolean)读回。
+     *
+     * @param text                text with labels
+     * @param replaceByLabelValue replace the labels by the label value or title
+     * @param out                 output, flushed but not closed
+     * @throws IOException write failed
+     */
+    public static void writeFinalContent(Spanned text, boolean replaceByLabelValue, Writer out) throws IOException {
+        LabelStreamSerializer serializer = new LabelStreamSerializer(out);
+        int index = 0;
+        for (MyLabelSpan span : getSortedLabelSpans(text)) {
+            serializer.writeLiteral(text, index, text.getSpanStart(span));
+            serializer.writeLabel(toLabel(span), replaceByLabelValue);
+            index = text.getSpanEnd(span);
+        }
+        serializer.writeLiteral(text, index, text.length());
+        serializer.flush();
+    }
+
+    /**
+     * convert many stored texts at once with the current labels, in parallel on the common fork-join pool.
+     * it blocks until all done, don't call it in the main thread.
+     * 用当前的标签批量转换保存的文本，在公共ForkJoin线程池中并行执行。会阻塞到全部完成，不要在主线程调用。
+     *
+     * @param texts       texts
+     * @param fromByValue the labels in the texts are the values or the titles
+     * @param toByValue   replace the labels by the value or the title
+     * @return results in the same order
+     */
+    public List<String> convertTemplates(List<String> texts, boolean fromByValue, boolean toByValue) {
+        return new LabelBatchConverter(compiledLabels.getParser()).convertAll(texts, fromByValue, toByValue);
+    }
+
+    /**
+     * compile the content of the main editText into a template, render it many times with the live values.
+     * 把主编辑框的内容编译为模板，之后可以用实时的值多次渲染。
+     *
+     * @return template
+     */
+    public LabelTemplate compileTemplate() {
+        return compileTemplate(mainEditText.getText());
+    }
+
+    /**
+     * compile any text with labels into a template.
+     * 把任意带标签的文本编译为模板。
+     *
+     * @param text text with labels
+     * @return template
+     */
+    public static LabelTemplate compileTemplate(Spanned text) {
+        LabelTemplate.Builder builder = new LabelTemplate.Builder();
+        int index = 0;
+        for (MyLabelSpan span : getSortedLabelSpans(text)) {
+            builder.appendLiteral(text, index, text.getSpanStart(span));
+            builder.appendVariable(span.getLabelValue());
+            index = text.getSpanEnd(span);
+        }
+        builder.appendLiteral(text, index, text.length());
+        return builder.build();
+    }
+
+    /**
+     * get the document of the main editText, it can be handled by the pure java part, like on the server.
+     * 获取主编辑框内容对应的文档，可以交给纯Java的部分处理，比如服务器端。
+     *
+     * @return document
+     */
+    public LabelDocument getDocument() {
+        if (mainEditText == null) {
+            return LabelDocument.EMPTY;
+        }
+        return toDocument(mainEditText.getText());
+    }
+
+    /**
+     * save the content of the main editText in the binary format, load it by loadDocument without parsing again.
+     * 以二进制格式保存主编辑框的内容，用loadDocument读取，不需要再次解析。
+     *
+     * @return bytes
+     */
+    public byte[] saveDocument() {
+        if (mainEditText == null) {
+            return LabelDocumentCodec.encode(new SpannableStringBuilder());
+        }
+        return LabelDocumentCodec.encode(mainEditText.getText());
+    }
+
+    /**
+     * show the content saved by saveDocument.
+     * 显示saveDocument保存的内容。
+     *
+     * @param data bytes
+     * @return this
+     * @throws IOException broken data or unsupported version
+     */
+    public MyLabelSpanHelper loadDocument(byte[] data) throws IOException {
+        SpannableStringBuilder text = LabelDocumentCodec.decode(data);
+        cancelShowTextByReplaceLabels();
+        if (mainEditText != null) {
+            mainEditText.setText(text);
+        }
+        return this;
+    }
+
+    /**
+     * convert any text with labels to a document.
+     * 把任意带标签的文本转为文档。
+     *
+     * @param text text with labels
+     * @return document
+     */
+    public static LabelDocument toDocument(Spanned text) {
+        LabelDocument.Builder builder = new LabelDocument.Builder();
+        int index = 0;
+        for (MyLabelSpan span : getSortedLabelSpans(text)) {
+            builder.appendLiteral(text, index, text.getSpanStart(span));
+            builder.appendLabel(toLabel(span));
+            index = text.getSpanEnd(span);
+        }
+        builder.appendLiteral(text, index, text.length());
+        return builder.build();
+    }
+
+    /**
+     * convert the document to the text with labels, the styles come from the current labels.
+     * the labels that are not in the current labels are kept as their values.
+     * 把文档转为带标签的文本，样式来自当前设置的标签，未设置的标签保留为它的值。
+     *
+     * @param document document
+     * @return result spannable string.
+     */
+    public SpannableStringBuilder toSpannable(LabelDocument document) {
+        Map<Label, MyLabelSpan> spansByLabel = compiledLabels.getSpansByLabel();
+        int count = document.getLabelCount();
+        MyLabelSpan[] spans = new MyLabelSpan[count];
+        StringBuilder content = new StringBuilder(document.getLiteralTextLength() + count * 8);
+        int[] starts = new int[count];
+        for (int i = 0; i < count; i++) {
+            document.appendLiteral(i, content);
+            Label label = document.getLabel(i);
+            MyLabelSpan prototype = spansByLabel.get(label);
+            starts[i] = content.length();
+            if (prototype != null) {
+                // if use the same object, there will be problem when touch it!
+                spans[i] = prototype.copy();
+                content.append(label.getTitle());
+            } else {
+                content.append(label.getValue());
+            }
+        }
+        document.appendLiteral(count, content);
+
+        SpannableStringBuilder result = new SpannableStringBuilder(content);
+        for (int i = 0; i < count; i++) {
+            if (spans[i] != null) {
+                result.setSpan(spans[i], starts[i], starts[i] + spans[i].getLabelTitle().length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            }
+        }
+        return result;
+    }
+
+    static Label toLabel(MyLabelSpan span) {
+        return new Label(span.getLabelTitle(), span.getLabelValue());
+    }
+
+    // the labels ordered by start, the overlapped ones are dropped.
+    static MyLabelSpan[] getSortedLabelSpans(Spanned text) {
+        return getSortedLabelSpans(text, 0, text.length());
+    }
+
+    // the labels in [from, to] ordered by start, the overlapped ones are dropped.
+    static MyLabelSpan[] getSortedLabelSpans(Spanned text, int from, int to) {
+        MyLabelSpan[] spans = text.getSpans(from, to, MyLabelSpan.class);
+
+        // keep the index in the low bits so no boxing needed.
+        long[] order = new long[spans.length];
+        for (int i = 0; i < spans.length; i++) {
+            order[i] = ((long) text.getSpanStart(spans[i]) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        MyLabelSpan[] result = new MyLabelSpan[spans.length];
+        int count = 0;
+        int lastEnd = 0;
+        for (long single : order) {
+            MyLabelSpan span = spans[(int) single];
+            if ((int) (single >>> 32) < lastEnd) {
+                continue; // overlapped, the former one wins.
+            }
+            result[count++] = span;
+            lastEnd = text.getSpanEnd(span);
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * get the text with span. Replace the text by the labels.
+     * 获取带span的文本，使用标签替换。
+     *
+     * @param text                target text
+     * @param replaceByLabelValue replace the labels by the label value or title
+     * @return result spannable string.
+     */
+    public SpannableStringBuilder getSpannableStringByReplaceLabels(String text, boolean replaceByLabelValue) {
+        CompiledLabels compiled = compiledLabels;
+        return getSpannableStringByReplaceLabels(text, compiled.getMatcher(replaceByLabelValue), compiled.labels);
+    }
+
+    /**
+     * find all the labels in one pass, then set the spans on the result in one go.
+     *
+     * @param text    target text
+     * @param matcher matcher built from the values or titles of the labels
+     * @param labels  labels in the same order as the matcher patterns
+     * @return result spannable string.
+     */
+    static SpannableStringBuilder getSpannableStringByReplaceLabels(String text, LabelMatcher matcher, MyLabelSpan[] labels) {
+        long metricStart = LabelMetrics.begin(LabelMetrics.PARSE);
+        try {
+            return buildSpannableStringByReplaceLabels(text, matcher, labels);
+        } finally {
+            LabelMetrics.end(LabelMetrics.PARSE, metricStart);
+        }
+    }
+
+    private static SpannableStringBuilder buildSpannableStringByReplaceLabels(String text, LabelMatcher matcher, MyLabelSpan[] labels) {
+        StringBuilder content = new StringBuilder(text.length());
+        List<MyLabelSpan> spans = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        int[] last = {0};
+        matcher.match(text, (start, end, patternIndex) -> {
+            content.append(text, last[0], start);
+            // if use the same object, there will be problem when touch it!
+            MyLabelSpan span = labels[patternIndex].copy();
+            spans.add(span);
+            starts.add(content.length());
+            content.append(span.getLabelTitle());
+            last[0] = end;
+        });
+        content.append(text, last[0], text.length());
+
+        SpannableStringBuilder spannableStringBuilder = new SpannableStringBuilder(content);
+        for (int i = 0; i < spans.size(); i++) {
+            MyLabelSpan span = spans.get(i);
+            int start = starts.get(i);
+            spannableStringBuilder.setSpan(span, start, start + span.getLabelTitle().length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        return spannableStringBuilder;
+    }
+
+    /**
+     * same as getSpannableStringByReplaceLabels(String, boolean), but read the text in pieces, the whole source is never
+     * in memory. "\%" and "\\" are the literal "%" and "\", as written by writeFinalContent.
+     * 同getSpannableStringByReplaceLabels(String, boolean)，但分段读取，原文不会整个放入内存。
+     * "\%"和"\\"表示文本"%"和"\"，与writeFinalContent写入的一致。
+     *
+     * @param in                  input, not closed
+     * @param replaceByLabelValue the labels in the text are the label values or titles
+     * @return result spannable string.
+     * @throws IOException read failed
+     */
+    public SpannableStringBuilder getSpannableStringByReplaceLabels(Reader in, boolean replaceByLabelValue) throws IOException {
+        final CompiledLabels compiled = compiledLabels;
+        final SpannableStringBuilder result = new SpannableStringBuilder();
+        new LabelStreamParser(compiled.getParser()).parse(in, replaceByLabelValue, new LabelStreamParser.Handler() {
+            @Override
+            public void onLiteral(char[] chars, int start, int end) {
+                result.append(CharBuffer.wrap(chars, start, end - start));
+            }
+
+            @Override
+            public void onLabel(int labelIndex) {
+                // if use the same object, there will be problem when touch it!
+                MyLabelSpan span = compiled.labels[labelIndex].copy();
+                int start = result.length();
+                result.append(span.getLabelTitle());
+                result.setSpan(span, start, result.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * get the text with span. Replace the text by the labels.
+     * 获取带span的文本，使用标签替换。
+     *
+     * @param replaceByLabelValue replace the labels by the label value or title
+     * @return result spannable string.
+     */
+    public SpannableStringBuilder getSpannableStringByReplaceLabels(boolean replaceByLabelValue) {
+        if (mainEditText != null) {
+            return getSpannableStringByReplaceLabels(mainEditText.getText().toString(), replaceByLabelValue);
+        }
+        return new SpannableStringBuilder();
+    }
+
+    /**
+     * replace labels and show final result. designed for set the text with scape character and convert into labels.
+     * 替换标签并显示最终内容，设计用于把带转义字符的结果显示成可视化的标签。
+     *
+     * @param replaceByLabelValue replace the labels by the label value or title
+     * @return this
+     */
+    public MyLabelSpanHelper showTextByReplaceLabels(boolean replaceByLabelValue) {
+        cancelShowTextByReplaceLabels();
+        if (mainEditText != null) {
+            mainEditText.post(() -> mainEditText.setText(getSpannableStringByReplaceLabels(replaceByLabelValue)));
+        }
+        return this;
+    }
+
+    /**
+     * replace labels and show final result. designed for set the text with scape character and convert into labels.
+     * 替换标签并显示最终内容，设计用于把带转义字符的结果显示成可视化的标签。
+     *
+     * @param text                text to handle.
+     * @param replaceByLabelValue replace the labels by the label value or title
+     * @return this
+     */
+    public MyLabelSpanHelper showTextByReplaceLabels(String text, boolean replaceByLabelValue) {
+        cancelShowTextByReplaceLabels();
+        if (mainEditText != null) {
+            mainEditText.post(() -> mainEditText.setText(getSpannableStringByReplaceLabels(text, replaceByLabelValue)));
+        }
+        return this;
+    }
+
+    // only the latest show request wins.
+    private final AtomicInteger showTextGeneration = new AtomicInteger();
+    private Future<?> showTextFuture = null;
+
+    /**
+     * same as showTextByReplaceLabels, but the current text is parsed in background.
+     * 同showTextByReplaceLabels，但是在后台线程解析当前文本。
+     *
+     * @param replaceByLabelValue replace the labels by the label value or title
+     * @return this
+     */
+    public MyLabelSpanHelper showTextByReplaceLabelsAsync(boolean replaceByLabelValue) {
+        if (mainEditText != null) {
+            showTextByReplaceLabelsAsync(mainEditText.getText().toString(), replaceByLabelValue);
+        }
+        return this;
+    }
+
+    /**
+     * same as showTextByReplaceLabels, but the text is parsed in background. only the latest request will be shown,
+     * the former ones are cancelled.
+     * 同showTextByReplaceLabels，但是在后台线程解析。只显示最后一次请求的结果，之前的请求会被取消。
+     *
+     * @param text                text to handle.
+     * @param replaceByLabelValue replace the labels by the label value or title
+     * @return this
+     */
+    public MyLabelSpanHelper showTextByReplaceLabelsAsync(String text, boolean replaceByLabelValue) {
+        cancelShowTextByReplaceLabels();
+        if (mainEditText == null) {
+            return this;
+        }
+        final EditText target = mainEditText;
+        final CompiledLabels compiled = compiledLabels;
+        final int generation = showTextGeneration.get();
+        showTextFuture = BACKGROUND_EXECUTOR.submit(() -> {
+            if (generation != showTextGeneration.get()) {
+                return;
+            }
+            final SpannableStringBuilder result =
+                    getSpannableStringByReplaceLabels(text, compiled.getMatcher(replaceByLabelValue), compiled.labels);
+            MAIN_HANDLER.post(() -> {
+                if (generation == showTextGeneration.get()) {
+                    target.setText(result);
+                }
+            });
+        });
+        return this;
+    }
+
+    /**
+     * cancel the pending async show request, if any.
+     * 取消尚未完成的异步显示请求。
+     */
+    public void cancelShowTextByReplaceLabels() {
+        showTextGeneration.incrementAndGet();
+        if (showTextFuture != null) {
+            showTextFuture.cancel(false);
+            showTextFuture = null;
+        }
+    }
+    //endregion
+
+    //region touch to drag
+    // the drag state of this helper only, the drags between helpers go through LabelDragCoordinator.
+    private final LabelDragSession dragSession = new LabelDragSession();
+
+    @SuppressLint("ClickableViewAccessibility")
+    private void setTouchToDragForEditText(ViewGroup viewGroup, EditText editText, EditText etForRemoveSpan) {
+        final LabelHitTestIndex hitTestIndex = new LabelHitTestIndex(editText);
+        editText.setOnTouchListener((v, event) -> {
+            if (event.getAction() == MotionEvent.ACTION_DOWN) {
+                Editable text = ((EditText) v).getText();
+                if (text != null) {
+                    MyLabelSpan single = hitTestIndex.findSpanAt(event.getX(), event.getY());
+                    if (single != null) {
+                        single.setSpanStart(text.getSpanStart(single));
+                        single.setSpanEnd(text.getSpanEnd(single));
+                        onTouchSpan(viewGroup, single, event.getX(), event.getY(), etForRemoveSpan);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * when we touch the span dynamic generation a textview just used for the drag shadow.
+     *
+     * @param viewGroup             to add a invisible textview, used for generate the shadow.
+     * @param span                  the target span that we touched
+     * @param x                     x
+     * @param y                     y
+     * @param editTextForRemoveSpan if it is the main edittext, then we need to remove the span if we really moved the finger (dragged the span) .
+     */
+    private void onTouchSpan(ViewGroup viewGroup, MyLabelSpan span, float x, float y, @Nullable EditText editTextForRemoveSpan) {
+        try {
+            final TextView maskTextView = new TextView(viewGroup.getContext());
+            maskTextView.setVisibility(View.INVISIBLE);
+            viewGroup.addView(maskTextView, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            maskTextView.setText(span.getLabelTitle());
+            maskTextView.setTextColor(span.getTextColor());
+            maskTextView.setTextSize(TypedValue.COMPLEX_UNIT_PX, span.getTextSize());
+            maskTextView.post(() -> {
+                try {
+                    maskTextView.setX(x);
+                    maskTextView.setY(y);
+                    MyLabelSpan localState = span.copy();
+                    // 3 steps to do: 1 cache the span; 2 delete the span if moved; 3 if dropped nothing, then restore the span;
+                    // set before start, the started event may come at once.
+                    LabelDragSession source = editTextForRemoveSpan != null ? dragSession : null;
+                    dragSession.draggingSpan = editTextForRemoveSpan != null ? span : null;
+                    LabelDragCoordinator.getInstance().startDrag(source, localState);
+                    if (!ViewCompat.startDragAndDrop(maskTextView, null, new View.DragShadowBuilder(maskTextView), localState, 0)) {
+                        dragSession.draggingSpan = null;
+                        LabelDragCoordinator.getInstance().endDrag(localState);
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    try {
+                        viewGroup.removeView(maskTextView);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // listener for receive drop span and change cursor and delete span.
+    private final View.OnDragListener mOnDragListener = new MyDragListener();
+
+    // handle the drag event.
+    // the locations come faster than frames on high refresh devices, so only the latest location of a frame is handled.
+    private class MyDragListener implements View.OnDragListener, Choreographer.FrameCallback {
+        boolean isCanAcceptDropEvent = false;     //must greater than touch slop.
+        float dragStartX = 0;
+        float dragStartY = 0;
+        int touchSlop = -1;                       //cached, it never changes for the view.
+
+        boolean isFramePosted = false;
+        boolean hasPendingLocation = false;
+        float pendingX = 0;
+        float pendingY = 0;
+
+        // the span of this editor being dragged, null if the drag comes from another editor or the provider.
+        MyLabelSpan sourceSpan = null;
+
+        @Override
+        public boolean onDrag(View v, DragEvent event) {
+            if (mainEditText != null) {
+                LabelDragCoordinator coordinator = LabelDragCoordinator.getInstance();
+                switch (event.getAction()) {
+                    case DragEvent.ACTION_DRAG_STARTED:
+                        isCanAcceptDropEvent = false;
+                        dragStartX = event.getX();
+                        dragStartY = event.getY();
+                        hasPendingLocation = false;
+                        dragSession.lastPos = -1;
+                        if (touchSlop < 0) {
+                            touchSlop = ViewConfiguration.get(mainEditText.getContext()).getScaledTouchSlop();
+                        }
+
+                        sourceSpan = coordinator.isSource(dragSession, event.getLocalState()) ? dragSession.draggingSpan : null;
+                        if (undoLog != null) {
+                            // the remove and the insert of a drag are undone together.
+                            undoLog.beginGroup();
+                        }
+                        if (sourceSpan != null) {
+                            sourceSpan.setSpanDeletedTemp(false);
+                        }
+
+                        v.performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+                        break;
+                    case DragEvent.ACTION_DRAG_LOCATION:
+                        // keep the latest one, handle it in the next frame.
+                        pendingX = event.getX();
+                        pendingY = event.getY();
+                        hasPendingLocation = true;
+                        if (!isFramePosted) {
+                            isFramePosted = true;
+                            Choreographer.getInstance().postFrameCallback(this);
+                        }
+                        break;
+                    case DragEvent.ACTION_DROP:
+                        // the cursor must be at the latest location before insert.
+                        flushPendingLocation();
+                        if (isCanAcceptDropEvent) {
+                            if (event.getLocalState() instanceof MyLabelSpan) {
+                                MyLabelSpan span = (MyLabelSpan) event.getLocalState();
+                                // only one editor can take it.
+                                if (!span.getLabelTitle().isEmpty() && coordinator.drop(span)) {
+                                    mainEditText.getText().insert(mainEditText.getSelectionStart(), span.getSpannableString());
+                                }
+                            }
+                        }
+                        break;
+                    case DragEvent.ACTION_DRAG_ENDED:
+                        flushPendingLocation();
+                        if (sourceSpan != null) {
+                            // restore it if it was removed but no editor took it.
+                            if (!coordinator.isDropped(event.getLocalState()) && sourceSpan.isSpanDeletedTemp()) {
+                                mainEditText.getText().insert(sourceSpan.getSpanStart(), sourceSpan.getSpannableString());
+                            }
+                            coordinator.endDrag(event.getLocalState());
+                            dragSession.clear();
+                        }
+                        sourceSpan = null;
+                        if (undoLog != null) {
+                            undoLog.endGroup();
+                        }
+                        isCanAcceptDropEvent = false;
+                        dragStartX = 0;
+                        dragStartY = 0;
+                        break;
+                    case DragEvent.ACTION_DRAG_ENTERED:
+                        break;
+                    case DragEvent.ACTION_DRAG_EXITED:
+                        flushPendingLocation();
+
+                        // set the deleted mark, actually it's useless, because if we drug VERY FAST, we can not receive this event.
+                        removeSourceSpan();
+                        break;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            isFramePosted = false;
+            if (hasPendingLocation && mainEditText != null) {
+                hasPendingLocation = false;
+                onDragLocation(pendingX, pendingY);
+            }
+        }
+
+        // handle the pending location now, don't wait for the frame.
+        private void flushPendingLocation() {
+            if (isFramePosted) {
+                isFramePosted = false;
+                Choreographer.getInstance().removeFrameCallback(this);
+            }
+            if (hasPendingLocation) {
+                hasPendingLocation = false;
+                onDragLocation(pendingX, pendingY);
+            }
+        }
+
+        private void onDragLocation(float x, float y) {
+            long metricStart = LabelMetrics.begin(LabelMetrics.DRAG_FRAME);
+            try {
+                // handle the cursor
+                showCursorByPosition(mainEditText, dragSession, x, y);
+
+                // remove the span if really moved (equal or greater than touch slop).
+                // if we drug VERY FAST, then we can not receive this event and ACTION_DRAG_EXITED, so the delete won't work, that's the problem of the system.
+                if (Math.abs(dragStartX - x) >= touchSlop
+                        || Math.abs(dragStartY - y) >= touchSlop) {
+
+                    // set the can accept mark
+                    isCanAcceptDropEvent = true;
+
+                    // set the deleted mark
+                    removeSourceSpan();
+                }
+            } finally {
+                LabelMetrics.end(LabelMetrics.DRAG_FRAME, metricStart);
+            }
+        }
+
+        // remove the dragged span from this editor once, it will be restored if nothing dropped.
+        private void removeSourceSpan() {
+            if (sourceSpan != null && !sourceSpan.isSpanDeletedTemp()) {
+                sourceSpan.setSpanDeletedTemp(true);
+                mainEditText.getText().delete(sourceSpan.getSpanStart(), sourceSpan.getSpanEnd());
+            }
+        }
+    }
+    //endregion
+
+    //region 工具类方法 tools
+
+    // forbid clipboard , because sometime it will mess up the span
+    private static void disableEditTextClipBoard(TextView textView) {
+        if (textView instanceof EditText) {
+            setInsertionDisabled((EditText) textView);
+        }
+        textView.setLongClickable(false);
+        textView.setTextIsSelectable(false);
+        textView.setCustomSelectionActionModeCallback(new ActionMode.Callback() {
+            @Override
+            public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+                return false;
+            }
+
+            @Override
+            public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+                return false;
+            }
+
+            @Override
+            public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+                return false;
+            }
+
+            @Override
+            public void onDestroyActionMode(ActionMode mode) {
+
+            }
+        });
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            // call that method
+            textView.setCustomInsertionActionModeCallback(new ActionMode.Callback() {
+                @Override
+                public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+                    return false;
+                }
+
+                @Override
+                public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+                    return false;
+                }
+
+                @Override
+                public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+                    return false;
+                }
+
+                @Override
+                public void onDestroyActionMode(ActionMode mode) {
+
+                }
+            });
+        }
+    }
+
+    // forbid clipboard 2
+    @SuppressLint("DiscouragedPrivateApi")
+    private static void setInsertionDisabled(EditText editText) {
+        try {
+            Field editorField = TextView.class.getDeclaredField("mEditor");
+            editorField.setAccessible(true);
+            Object editorObject = editorField.get(editText);
+
+            // if this view supports insertion handles
+            @SuppressLint("PrivateApi") Class<?> editorClass = Class.forName("android.widget.Editor");
+            Field mInsertionControllerEnabledField = editorClass.getDeclaredField("mInsertionControllerEnabled");
+            mInsertionControllerEnabledField.setAccessible(true);
+            mInsertionControllerEnabledField.set(editorObject, false);
+
+            // if this view supports selection handles
+            Field mSelectionControllerEnabledField = editorClass.getDeclaredField("mSelectionControllerEnabled");
+            mSelectionControllerEnabledField.setAccessible(true);
+            mSelectionControllerEnabledField.set(editorObject, false);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 根据触摸位置显示光标
+     *
+     * @param session 拖动状态，记录上次的位置
+     * @param x       x坐标，相对于控件自身
+     * @param y       y坐标，相对于控件自身
+     */
+    private static void showCursorByPosition(EditText editText, LabelDragSession session, float x, float y) {
+        int pos = editText.getOffsetForPosition(x, y);
+        if (pos == session.lastPos && editText.getSelectionStart() == pos) {
+            return; // nothing changed
+        }
+        if (pos != session.lastPos) {
+            session.lastPos = pos;
+            editText.performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+        }
+        editText.setSelection(pos); //cursor position
+        if (!editText.hasFocus()) {
+            editText.requestFocus();    //show the cursor
+        }
+    }
+    //endregion
+
+}
@@ -0,0 +1,101 @@
+package com.test.myapplication.label
+
+import android.graphics.Color
+import android.text.SpannableStringBuilder
+import android.text.Spanned
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.ByteArrayInputStream
+import java.io.IOException
+import java.nio.ByteBuffer
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [32])
+class LabelDocumentCodecTest {
+
+    private val hour = MyLabelSpan("小时", "%hour%", 5, 3, Color.RED, 10, 20, Color.BLUE)
+    private val year = MyLabelSpan("Year", "%4year%", 2, 1, Color.GREEN, 4, 6, Color.BLACK)
+
+    private fun document(): SpannableStringBuilder {
+        val text = SpannableStringBuilder("现在是")
+        text.append(year.copy().spannableString)
+        text.append("年，")
+        text.append(hour.copy().spannableString)
+        text.append("点，")
+        text.append(hour.copy().spannableString)
+        return text
+    }
+
+    private fun assertSameDocument(expected: Spanned, actual: Spanned) {
+        assertEquals(expected.toString(), actual.toString())
+        val expectedSpans = MyLabelSpanHelper.getSortedLabelSpans(expected)
+        val actualSpans = MyLabelSpanHelper.getSortedLabelSpans(actual)
+        assertEquals(expectedSpans.size, actualSpans.size)
+        for (i in expectedSpans.indices) {
+            assertEquals(expected.getSpanStart(expectedSpans[i]), actual.getSpanStart(actualSpans[i]))
+            assertEquals(expected.getSpanEnd(expectedSpans[i]), actual.getSpanEnd(actualSpans[i]))
+            assertEquals(expectedSpans[i].labelTitle, actualSpans[i].labelTitle)
+            assertEquals(expectedSpans[i].labelValue, actualSpans[i].labelValue)
+            assertEquals(expectedSpans[i].style, actualSpans[i].style)
+        }
+    }
+
+    @Test
+    fun roundTrip() {
+        val text = document()
+        val bytes = LabelDocumentCodec.encode(text)
+
+        assertSameDocument(text, LabelDocumentCodec.decode(bytes))
+        assertSameDocument(text, LabelDocumentCodec.decode(ByteArrayInputStream(bytes)))
+        assertSameDocument(text, LabelDocumentCodec.decode(ByteBuffer.allocateDirect(bytes.size).put(bytes).apply { flip() }))
+        assertSameDocument(SpannableStringBuilder(), LabelDocumentCodec.decode(LabelDocumentCodec.encode(SpannableStringBuilder())))
+    }
+
+    @Test
+    fun everySpanIsANewObject() {
+        val decoded = LabelDocumentCodec.decode(LabelDocumentCodec.encode(document()))
+        val spans = MyLabelSpanHelper.getSortedLabelSpans(decoded)
+
+        assertEquals(3, spans.size)
+        assertNotSame(spans[1], spans[2])
+    }
+
+    @Test
+    fun truncatedData() {
+        val bytes = LabelDocumentCodec.encode(document())
+        for (length in 0 until bytes.size) {
+            assertBroken(bytes.copyOf(length))
+        }
+    }
+
+    @Test
+    fun badMagicAndVersion() {
+        val bytes = LabelDocumentCodec.encode(document())
+
+        val badMagic = bytes.copyOf()
+        badMagic[0] = 0
+        assertBroken(badMagic)
+
+        // the version is the varint right after the magic.
+        val newerVersion = bytes.copyOf()
+        newerVersion[4] = (LabelDocumentCodec.VERSION + 1).toByte()
+        assertBroken(newerVersion)
+
+        val zeroVersion = bytes.copyOf()
+        zeroVersion[4] = 0
+        assertBroken(zeroVersion)
+    }
+
+    private fun assertBroken(bytes: ByteArray) {
+        try {
+            LabelDocumentCodec.decode(bytes)
+            fail("decoded ${bytes.size} bytes")
+        } catch (expected: IOException) {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.test.myapplication.label
+
+import android.graphics.Color
+import android.os.Looper
+import android.view.inputmethod.BaseInputConnection
+import android.widget.EditText
+import androidx.test.core.app.ApplicationProvider
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [32])
+class LabelIncrementalTokenizerTest {
+
+    private val year = MyLabelSpan("年", "%year%", 5, 3, Color.RED, 10, 20, Color.BLUE)
+    private val month = MyLabelSpan("月", "%month%", 5, 3, Color.RED, 10, 20, Color.BLUE)
+
+    private lateinit var editText: EditText
+
+    private lateinit var helper: MyLabelSpanHelper
+
+    @Before
+    fun setUp() {
+        editText = EditText(ApplicationProvider.getApplicationContext())
+        helper = MyLabelSpanHelper().setLabels(listOf(year, month))
+        LabelIncrementalTokenizer(editText, helper)
+    }
+
+    private fun labelTitles() = MyLabelSpanHelper.getSortedLabelSpans(editText.text).map { it.labelTitle }
+
+    @Test
+    fun typedValueBecomesLabel() {
+        editText.text.append("今天是%year")
+        assertEquals(emptyList<String>(), labelTitles())
+
+        editText.text.append("%的")
+        assertEquals(listOf("年"), labelTitles())
+        assertEquals("今天是年的", editText.text.toString())
+    }
+
+    @Test
+    fun composingMatchIsConvertedWhenComposingFinishes() {
+        val text = editText.text
+        text.append("今天是%year")
+        BaseInputConnection.setComposingSpans(text, 3, text.length)
+        // the composing span is extended by the input method, like setComposingText.
+        text.append("%")
+        BaseInputConnection.setComposingSpans(text, 3, text.length)
+        text.append("%month%")
+        assertEquals(listOf("月"), labelTitles())
+
+        // finishComposingText only removes the span, the text is not changed.
+        BaseInputConnection.removeComposingSpans(text)
+        shadowOf(Looper.getMainLooper()).idle()
+        assertEquals(listOf("年", "月"), labelTitles())
+        assertEquals("今天是年月", text.toString())
+    }
+
+    @Test
+    fun composingRegionMovedAway() {
+        val text = editText.text
+        text.append("%year")
+        BaseInputConnection.setComposingSpans(text, 0, text.length)
+        text.append("%")
+        text.append("%year%")
+        // only the match inside the composing text is skipped.
+        assertEquals(listOf("年"), labelTitles())
+        assertEquals("%year%年", text.toString())
+
+        text.append("abc")
+        BaseInputConnection.setComposingSpans(text, text.length - 3, text.length)
+        shadowOf(Looper.getMainLooper()).idle()
+        assertEquals(listOf("年", "年"), labelTitles())
+    }
+
+    @Test
+    fun valueNotTouchedByTheEditIsKept() {
+        // the text was there before the tokenizer, like a value restored by undo.
+        val other = EditText(ApplicationProvider.getApplicationContext())
+        other.setText("%year%ab")
+        LabelIncrementalTokenizer(other, helper)
+
+        other.text.append("c")
+        other.text.insert(6, "x")
+        other.text.insert(0, "y")
+        other.text.delete(0, 1)
+        assertEquals("%year%xabc", other.text.toString())
+        assertEquals(0, MyLabelSpanHelper.getSortedLabelSpans(other.text).size)
+
+        // a deletion joining a value converts it.
+        other.text.insert(3, "_")
+        other.text.delete(3, 4)
+        assertEquals("年xabc", other.text.toString())
+    }
+}
@@ -0,0 +1,170 @@
+package com.test.myapplication.label
+
+import android.graphics.Color
+import android.text.SpannableStringBuilder
+import android.text.Spanned
+import android.widget.EditText
+import androidx.test.core.app.ApplicationProvider
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [32])
+class LabelOccurrenceIndexTest {
+
+    private val year = MyLabelSpan("年", "%year%", 5, 3, Color.RED, 10, 20, Color.BLUE)
+    private val hour = MyLabelSpan("小时", "%hour%", 5, 3, Color.RED, 10, 20, Color.BLUE)
+
+    private lateinit var editText: EditText
+    private lateinit var index: LabelOccurrenceIndex
+
+    @Before
+    fun setUp() {
+        editText = EditText(ApplicationProvider.getApplicationContext())
+        index = LabelOccurrenceIndex(editText)
+    }
+
+    // "ab年cd小时ef年"
+    private fun fill() {
+        val text = editText.text
+        text.append("ab")
+        text.append(year.copy().spannableString)
+        text.append("cd")
+        text.append(hour.copy().spannableString)
+        text.append("ef")
+        text.append(year.copy().spannableString)
+    }
+
+    @Test
+    fun insert() {
+        fill()
+        assertEquals(3, index.totalCount)
+        assertEquals(2, index.getCount("%year%"))
+        assertEquals(1, index.getCount("%hour%"))
+        assertEquals(0, index.getCount("%day%"))
+        assertEquals(setOf("%year%", "%hour%"), index.variables)
+        assertArrayEquals(intArrayOf(2, 9), index.getPositions("%year%"))
+
+        // text before the labels moves them, the order is kept.
+        editText.text.insert(0, "012")
+        assertArrayEquals(intArrayOf(5, 12), index.getPositions("%year%"))
+        assertArrayEquals(intArrayOf(8), index.getPositions("%hour%"))
+
+        // a label inserted between the others.
+        editText.text.insert(7, year.copy().spannableString)
+        assertArrayEquals(intArrayOf(5, 7, 13), index.getPositions("%year%"))
+        assertEquals(4, index.totalCount)
+    }
+
+    @Test
+    fun deleteAcrossLabel() {
+        fill()
+        // "b年c" is deleted, the first year with it.
+        editText.text.delete(1, 4)
+        assertEquals(2, index.totalCount)
+        assertArrayEquals(intArrayOf(6), index.getPositions("%year%"))
+        assertArrayEquals(intArrayOf(2), index.getPositions("%hour%"))
+
+        editText.text.delete(0, editText.length())
+        assertEquals(0, index.totalCount)
+        assertEquals(emptySet<String>(), index.variables)
+    }
+
+    @Test
+    fun resize() {
+        fill()
+        val text = editText.text
+        val spans = index.getOccurrences("%year%")
+        val first = spans[0]
+
+        // swap the order, with other lengths.
+        text.setSpan(spans[1], 0, 2, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE)
+        text.setSpan(first, 7, 10, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE)
+        assertEquals(listOf(spans[1], first), index.getOccurrences("%year%"))
+        assertArrayEquals(intArrayOf(0, 7), index.getPositions("%year%"))
+
+        // a partly deleted label is shorter now, but still indexed.
+        text.delete(8, 9)
+        assertEquals(3, index.totalCount)
+        assertEquals(2, index.getCount("%year%"))
+    }
+
+    @Test
+    fun moveWithSameLength() {
+        fill()
+        val text = editText.text
+        text.append("gh")
+        val spans = index.getOccurrences("%year%")
+        val first = spans[0]
+
+        // "ab年cd小时ef年gh", the first one moved after the second one, the length is kept.
+        text.setSpan(first, 11, 12, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE)
+        assertEquals(listOf(spans[1], first), index.getOccurrences("%year%"))
+        assertArrayEquals(intArrayOf(9, 11), index.getPositions("%year%"))
+        assertSame(first, index.findNext("%year%", 10))
+        assertSame(spans[1], index.findPrevious("%year%", 10))
+
+        // and back to the front.
+        text.setSpan(first, 0, 1, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE)
+        assertEquals(listOf(first, spans[1]), index.getOccurrences("%year%"))
+
+        // the set is still in order, so the removal finds it.
+        text.removeSpan(first)
+        assertEquals(1, index.getCount("%year%"))
+        assertEquals(2, index.totalCount)
+        assertSame(spans[1], index.findNext("%year%", 0))
+    }
+
+    @Test
+    fun setTextAttachesAgain() {
+        fill()
+        val old = editText.text
+
+        val replacement = SpannableStringBuilder("x")
+        replacement.append(hour.copy().spannableString)
+        editText.setText(replacement)
+        assertEquals(1, index.totalCount)
+        assertEquals(0, index.getCount("%year%"))
+        assertArrayEquals(intArrayOf(1), index.getPositions("%hour%"))
+
+        // the old text is not followed any more.
+        old.append(hour.copy().spannableString)
+        assertEquals(1, index.totalCount)
+        editText.text.append(year.copy().spannableString)
+        assertEquals(2, index.totalCount)
+
+        index.detach()
+        editText.text.append(year.copy().spannableString)
+        assertEquals(0, index.totalCount)
+    }
+
+    @Test
+    fun findNextAndPrevious() {
+        fill()
+        val years = index.getOccurrences("%year%")
+
+        assertSame(years[0], index.findNext("%year%", 0))
+        assertSame(years[0], index.findNext("%year%", 2))
+        assertSame(years[1], index.findNext("%year%", 3))
+        assertNull(index.findNext("%year%", 10))
+        assertNull(index.findNext("%day%", 0))
+
+        assertNull(index.findPrevious("%year%", 2))
+        assertSame(years[0], index.findPrevious("%year%", 3))
+        assertSame(years[1], index.findPrevious("%year%", 10))
+        assertNull(index.findPrevious("%day%", 10))
+
+        // still right after an edit before them.
+        editText.text.insert(0, "0")
+        assertSame(years[0], index.findNext("%year%", 3))
+        assertSame(years[1], index.findNext("%year%", 4))
+        assertSame(years[0], index.findPrevious("%year%", 4))
+    }
+}
@@ -0,0 +1,195 @@
+package com.test.myapplication.label
+
+import android.graphics.Color
+import android.text.SpannableStringBuilder
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [32])
+class LabelTemplateStoreTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val hour = MyLabelSpan("小时", "%hour%", 5, 3, Color.RED, 10, 20, Color.BLUE)
+
+    private fun text(prefix: String): SpannableStringBuilder {
+        val text = SpannableStringBuilder(prefix)
+        text.append(hour.copy().spannableString)
+        text.append("点")
+        return text
+    }
+
+    private fun names(store: LabelTemplateStore) = store.list().map { it.name }
+
+    @Test
+    fun saveAndOpen() {
+        LabelTemplateStore(folder.root, 4).use { store ->
+            val first = store.save("早", text("早上"))
+            val second = store.save("晚", text("晚上"))
+
+            assertEquals(listOf("早", "晚"), names(store))
+            val opened = store.open(first)!!
+            assertEquals(text("早上").toString(), opened.toString())
+            assertEquals(1, MyLabelSpanHelper.getSortedLabelSpans(opened).size)
+            assertEquals(text("晚上").toString(), store.open(second).toString())
+            assertNull(store.open(99))
+
+            // the cached copy is never handed out.
+            val again = store.open(first)!!
+            assertNotSame(
+                MyLabelSpanHelper.getSortedLabelSpans(opened)[0],
+                MyLabelSpanHelper.getSortedLabelSpans(again)[0]
+            )
+        }
+    }
+
+    @Test
+    fun withoutCache() {
+        LabelTemplateStore(folder.root, 0).use { store ->
+            val id = store.save("早", text("早上"))
+            assertEquals(text("早上").toString(), store.open(id).toString())
+            store.update(id, "晚", text("晚上"))
+            assertEquals(text("晚上").toString(), store.open(id).toString())
+            store.compact()
+            assertEquals(text("晚上").toString(), store.open(id).toString())
+        }
+    }
+
+    @Test
+    fun updateAndDelete() {
+        LabelTemplateStore(folder.root, 4).use { store ->
+            val first = store.save("a", text("一"))
+            val second = store.save("b", text("二"))
+            store.open(first)
+
+            store.update(first, "c", text("三"))
+            assertEquals(listOf("c", "b"), names(store))
+            assertEquals(text("三").toString(), store.open(first).toString())
+
+            store.delete(second)
+            assertEquals(listOf("c"), names(store))
+            assertNull(store.open(second))
+
+            try {
+                store.update(second, "d", text("四"))
+                fail("updated a deleted template")
+            } catch (expected: IOException) {
+            }
+        }
+    }
+
+    @Test
+    fun reopen() {
+        val first: Long
+        val deleted: Long
+        LabelTemplateStore(folder.root, 4).use { store ->
+            first = store.save("a", text("一"))
+            deleted = store.save("b", text("二"))
+            store.update(first, "c", text("三"))
+            store.delete(deleted)
+        }
+        LabelTemplateStore(folder.root, 4).use { store ->
+            assertEquals(listOf("c"), names(store))
+            assertEquals(text("三").toString(), store.open(first).toString())
+            assertTrue(store.save("d", text("四")) > deleted)
+        }
+    }
+
+    @Test
+    fun compact() {
+        val kept: Long
+        val deleted: Long
+        LabelTemplateStore(folder.root, 4).use { store ->
+            kept = store.save("a", text("一"))
+            deleted = store.save("b", text("二"))
+            store.update(kept, "c", text("三"))
+            store.delete(deleted)
+            val before = dataSize()
+
+            store.compact()
+            assertTrue(dataSize() < before)
+            assertEquals(listOf("c"), names(store))
+            assertEquals(text("三").toString(), store.open(kept).toString())
+
+            // still writable after the files are replaced.
+            val added = store.save("d", text("四"))
+            assertTrue(added > deleted)
+            assertEquals(listOf("c", "d"), names(store))
+        }
+        assertEquals(1, dataFiles().size)
+        LabelTemplateStore(folder.root, 4).use { store ->
+            assertEquals(listOf("c", "d"), names(store))
+            assertEquals(text("三").toString(), store.open(kept).toString())
+        }
+    }
+
+    @Test
+    fun interruptedCompactKeepsTheOldFiles() {
+        val id: Long
+        LabelTemplateStore(folder.root, 4).use { store ->
+            id = store.save("a", text("一"))
+        }
+        // what a compact leaves if it stops before the rename.
+        File(folder.root, "templates-1.dat").writeBytes(ByteArray(16))
+        File(folder.root, "templates.idx.tmp").writeBytes(ByteArray(16))
+
+        LabelTemplateStore(folder.root, 4).use { store ->
+            assertEquals(listOf("a"), names(store))
+            assertEquals(text("一").toString(), store.open(id).toString())
+        }
+        assertEquals(listOf("templates-0.dat"), dataFiles().map { it.name })
+        assertFalse(File(folder.root, "templates.idx.tmp").exists())
+    }
+
+    @Test
+    fun brokenRecord() {
+        val id: Long
+        LabelTemplateStore(folder.root, 4).use { store ->
+            id = store.save("a", text("一"))
+        }
+        // record: int nameLength, name, long updatedAt, int bodyLength, body.
+        RandomAccessFile(dataFiles()[0], "rw").use { file ->
+            file.seek(4L + 1 + 8)
+            file.writeInt(Int.MAX_VALUE)
+        }
+        LabelTemplateStore(folder.root, 4).use { store ->
+            assertEquals(listOf("a"), names(store))
+            try {
+                store.open(id)
+                fail("opened a broken record")
+            } catch (expected: IOException) {
+            }
+        }
+
+        RandomAccessFile(dataFiles()[0], "rw").use { file ->
+            file.writeInt(-1)
+        }
+        LabelTemplateStore(folder.root, 4).use { store ->
+            try {
+                store.list()
+                fail("listed a broken record")
+            } catch (expected: IOException) {
+            }
+        }
+    }
+
+    private fun dataFiles(): List<File> =
+        folder.root.listFiles { file -> file.name.endsWith(".dat") }!!.sortedBy { it.name }
+
+    private fun dataSize() = dataFiles().sumOf { it.length() }
+}
@@ -0,0 +1,195 @@
+package com.test.myapplication.label
+
+import android.graphics.Color
+import android.os.SystemClock
+import android.widget.EditText
+import androidx.test.core.app.ApplicationProvider
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [32])
+class LabelUndoLogTest {
+
+    private val hour = MyLabelSpan("小时", "%hour%", 5, 3, Color.RED, 10, 20, Color.BLUE)
+
+    private lateinit var editText: EditText
+    private lateinit var log: LabelUndoLog
+
+    @Before
+    fun setUp() {
+        editText = EditText(ApplicationProvider.getApplicationContext())
+        log = LabelUndoLog(editText)
+    }
+
+    private fun text() = editText.text.toString()
+
+    private fun type(chars: String) {
+        for (c in chars) {
+            editText.text.append(c)
+        }
+    }
+
+    @Test
+    fun undoAndRedo() {
+        editText.text.append("abc")
+        editText.text.replace(1, 2, "XY")
+        assertEquals("aXYc", text())
+
+        assertTrue(log.undo())
+        assertEquals("abc", text())
+        assertTrue(log.undo())
+        assertEquals("", text())
+        assertFalse(log.undo())
+
+        assertTrue(log.redo())
+        assertEquals("abc", text())
+        assertTrue(log.redo())
+        assertEquals("aXYc", text())
+        assertFalse(log.redo())
+        assertEquals(3, editText.selectionStart)
+
+        // a new edit drops the redo steps.
+        log.undo()
+        editText.text.append("!")
+        assertFalse(log.canRedo())
+    }
+
+    @Test
+    fun typingIsMerged() {
+        editText.text.append("start ")
+        type("hello")
+        editText.text.delete(editText.length() - 1, editText.length())
+        assertEquals("start hell", text())
+
+        assertTrue(log.undo())
+        assertEquals("start ", text())
+        assertTrue(log.undo())
+        assertEquals("", text())
+    }
+
+    @Test
+    fun typingAfterTimeoutIsANewStep() {
+        type("ab")
+        SystemClock.sleep(1500)
+        type("cd")
+
+        log.undo()
+        assertEquals("ab", text())
+        log.undo()
+        assertEquals("", text())
+    }
+
+    @Test
+    fun newLineIsNotMerged() {
+        type("ab")
+        editText.text.append("\n")
+        type("cd")
+
+        log.undo()
+        assertEquals("ab\n", text())
+        log.undo()
+        assertEquals("ab", text())
+    }
+
+    @Test
+    fun composingTextIsMerged() {
+        editText.text.append("start ")
+        // the input method replaces the whole composing text on every key.
+        val text = editText.text
+        text.append("h")
+        text.replace(6, 7, "he")
+        text.replace(6, 8, "hel")
+        text.replace(6, 9, "he")
+        text.replace(6, 8, "hey")
+        type(" you")
+        assertEquals("start hey you", text())
+
+        assertTrue(log.undo())
+        assertEquals("start ", text())
+    }
+
+    @Test
+    fun typedAndDeletedLeavesNothing() {
+        editText.text.append("abc")
+        log.clear()
+
+        type("d")
+        editText.text.delete(3, 4)
+        assertFalse(log.canUndo())
+        assertEquals(0, log.usedBytes)
+
+        editText.text.append("d")
+        editText.text.replace(3, 4, "e")
+        editText.text.replace(3, 4, "")
+        assertFalse(log.canUndo())
+    }
+
+    @Test
+    fun backspacesAreMerged() {
+        editText.text.append("abcdef")
+        SystemClock.sleep(1500)
+        editText.text.delete(5, 6)
+        editText.text.delete(4, 5)
+        editText.text.delete(3, 4)
+        assertEquals("abc", text())
+
+        log.undo()
+        assertEquals("abcdef", text())
+    }
+
+    @Test
+    fun groupIsOneStep() {
+        editText.text.append("abc")
+        log.beginGroup()
+        editText.text.delete(0, 1)
+        editText.text.append("a")
+        log.endGroup()
+        assertEquals("bca", text())
+
+        log.undo()
+        assertEquals("abc", text())
+    }
+
+    @Test
+    fun labelsAreRestoredAsNewObjects() {
+        editText.text.append("现在")
+        val label = hour.copy()
+        editText.text.append(label.spannableString)
+        editText.text.delete(2, editText.length())
+
+        log.undo()
+        val restored = MyLabelSpanHelper.getSortedLabelSpans(editText.text)
+        assertEquals(1, restored.size)
+        assertNotSame(label, restored[0])
+        assertEquals("%hour%", restored[0].labelValue)
+
+        log.undo()
+        log.redo()
+        assertNotSame(restored[0], MyLabelSpanHelper.getSortedLabelSpans(editText.text)[0])
+    }
+
+    @Test
+    fun oldestStepsAreTrimmed() {
+        for (i in 0 until 10) {
+            editText.text.append("0123456789".repeat(10))
+        }
+        val stepBytes = log.usedBytes / 10
+        log.setMemoryBudget(stepBytes * 3)
+        assertTrue(log.usedBytes <= stepBytes * 3)
+
+        var steps = 0
+        while (log.undo()) {
+            steps++
+        }
+        assertEquals(3, steps)
+        assertEquals(700, editText.length())
+    }
+}
@@ -0,0 +1,98 @@
+package com.test.myapplication.label
+
+import android.graphics.Color
+import android.os.Looper
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [32])
+class MyLabelSpanHelperLabelsTest {
+
+    private fun label(title: String, value: String) = MyLabelSpan(title, value, 5, 3, Color.RED, 10, 20, Color.BLUE)
+
+    private val year = label("年", "%year%")
+    private val month = label("月", "%month%")
+    private val day = label("日", "%day%")
+    private val hour = label("时", "%hour%")
+
+    // let the background load finish, then run its commit.
+    private fun finishAsyncLoad() {
+        MyLabelSpanHelper.BACKGROUND_EXECUTOR.submit {}.get()
+        shadowOf(Looper.getMainLooper()).idle()
+    }
+
+    private fun titles(helper: MyLabelSpanHelper) = helper.searchLabels("").map { it.labelTitle }
+
+    private fun parsedTitles(helper: MyLabelSpanHelper, text: String) =
+        MyLabelSpanHelper.getSortedLabelSpans(helper.getSpannableStringByReplaceLabels(text, true)).map { it.labelTitle }
+
+    @Test
+    fun editsDuringAsyncLoadAreKept() {
+        val helper = MyLabelSpanHelper()
+        helper.setLabelsAsync(listOf(year, month))
+        helper.addLabel(day)
+        helper.removeLabel(year)
+        helper.replaceLabel(month, hour)
+        assertEquals(listOf("日"), titles(helper))
+
+        finishAsyncLoad()
+        assertEquals(listOf("时", "日"), titles(helper))
+        assertEquals(listOf("时", "日"), parsedTitles(helper, "%hour%%day%%year%%month%"))
+    }
+
+    @Test
+    fun newerLoadWins() {
+        val helper = MyLabelSpanHelper()
+        helper.setLabelsAsync(listOf(year))
+        helper.setLabelsAsync(listOf(month))
+        helper.addLabel(day)
+
+        finishAsyncLoad()
+        assertEquals(listOf("月", "日"), titles(helper))
+
+        helper.setLabelsAsync(listOf(hour))
+        helper.setLabels(listOf(year))
+        finishAsyncLoad()
+        assertEquals(listOf("年"), titles(helper))
+    }
+
+    @Test
+    fun incrementalEdits() {
+        val helper = MyLabelSpanHelper()
+        helper.setLabels(listOf(year, month))
+        assertEquals(listOf("年"), parsedTitles(helper, "%year%%day%"))
+
+        helper.addLabel(day)
+        assertEquals(listOf("年", "日"), parsedTitles(helper, "%year%%day%"))
+
+        helper.removeLabel(year)
+        helper.replaceLabel(month, hour)
+        assertEquals(listOf("时", "日"), titles(helper))
+        assertEquals(listOf("时", "日"), parsedTitles(helper, "%year%%month%%hour%%day%"))
+        assertEquals(listOf("时"), helper.searchLabels("hour").map { it.labelTitle })
+    }
+
+    @Test
+    fun convertTemplatesRightAfterEdits() {
+        val helper = MyLabelSpanHelper()
+        helper.setLabels(listOf(year, month))
+        assertEquals(
+            listOf("今年", "年月日%day%"),
+            helper.convertTemplates(listOf("今%year%", "%year%%month%日%day%"), true, false)
+        )
+
+        helper.addLabel(day)
+        assertEquals(listOf("年月日日"), helper.convertTemplates(listOf("%year%%month%日%day%"), true, false))
+
+        helper.replaceLabel(month, hour)
+        assertEquals(listOf("%hour%月"), helper.convertTemplates(listOf("时月"), false, true))
+
+        helper.removeLabel(year)
+        assertEquals(listOf("%year%日"), helper.convertTemplates(listOf("%year%%day%"), true, false))
+    }
+}